@@ -1,10 +1,16 @@
 package AuctionHouseProject.AuctionSystem;
 
+import AuctionHouseProject.Enums.AuctionMode;
+
+import java.util.concurrent.CompletableFuture;
+
 /**
  * The type Auction.
  * <p>
  * Class that describes the behaviour of an Auction. It is characterized by an id, a minimum number of participants,
- * the current number of participants, the auctioned product's id and the number of steps for the auction.
+ * the current number of participants, the auctioned product's id, the number of steps for the auction and the mode in
+ * which its outcome is computed. It also keeps the book of its participants' offers, grouped by the broker that
+ * represents them.
  */
 public class Auction {
     /**
@@ -27,6 +33,27 @@ public class Auction {
      * The number of steps in which the auction is supposed to happen.
      */
     private int maxNoSteps;
+    /**
+     * The mode in which the auction's outcome is computed.
+     */
+    private AuctionMode mode = AuctionMode.stepped;
+    /**
+     * The book of offers made by the clients that have signed up for the auction.
+     */
+    private final OfferBook offerBook = new OfferBook();
+    /**
+     * Whether the auction is being run at the moment or not.
+     */
+    private volatile boolean inProgress = false;
+    /**
+     * The future of the auction's last run, which completes with whether the product was sold or not when the run
+     * ends.
+     */
+    private volatile CompletableFuture< Boolean > run = CompletableFuture.completedFuture(false);
+    /**
+     * The journal sequence of the command that has started the auction, -1 if it wasn't journaled.
+     */
+    private volatile long startSequence = -1;
 
     /**
      * Paramless Constructor.
@@ -51,6 +78,38 @@ public class Auction {
         this.maxNoSteps = maxNoSteps;
     }
 
+    /**
+     * Instantiates a new Auction.
+     *
+     * @param id             the auction's id
+     * @param noParticipants the minimum number of participants for the auction
+     * @param productId      the auctioned product's id
+     * @param maxNoSteps     the maximum number of steps for the auction
+     * @param mode           the mode in which the auction's outcome is computed
+     */
+    public Auction(int id, int noParticipants, int productId, int maxNoSteps, AuctionMode mode) {
+        this(id, noParticipants, productId, maxNoSteps);
+        this.mode = mode;
+    }
+
+    /**
+     * Gets the journal sequence of the command that has started the auction.
+     *
+     * @return the journal sequence of the command that has started the auction, -1 if it wasn't journaled
+     */
+    public long getStartSequence() {
+        return startSequence;
+    }
+
+    /**
+     * Sets the journal sequence of the command that has started the auction.
+     *
+     * @param startSequence the journal sequence of the command that has started the auction
+     */
+    public void setStartSequence(long startSequence) {
+        this.startSequence = startSequence;
+    }
+
     /**
      * Gets the current number of participants.
      *
@@ -141,4 +200,70 @@ public class Auction {
         this.maxNoSteps = maxNoSteps;
     }
 
+    /**
+     * Gets the mode in which the auction's outcome is computed.
+     *
+     * @return the auction's mode
+     */
+    public AuctionMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Sets the mode in which the auction's outcome is computed.
+     *
+     * @param mode the auction's mode
+     */
+    public void setMode(AuctionMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Whether the auction is being run at the moment or not.
+     *
+     * @return true if the auction is being run, else false
+     */
+    public boolean isInProgress() {
+        return inProgress;
+    }
+
+    /**
+     * Sets whether the auction is being run at the moment or not.
+     *
+     * @param inProgress whether the auction is being run or not
+     */
+    public void setInProgress(boolean inProgress) {
+        this.inProgress = inProgress;
+    }
+
+    /**
+     * Start a new run of the auction: it is in progress until the run ends. It is called while holding the auction's
+     * monitor.
+     *
+     * @return the future of the new run, to be completed with whether the product was sold or not
+     */
+    CompletableFuture< Boolean > startRun() {
+        run = new CompletableFuture<>();
+        inProgress = true;
+        return run;
+    }
+
+    /**
+     * Gets the future of the auction's last run, which completes with whether the product was sold or not when the
+     * run ends. It is already completed if the auction has never been run.
+     *
+     * @return the future of the last run
+     */
+    public CompletableFuture< Boolean > getRun() {
+        return run;
+    }
+
+    /**
+     * Gets the book of offers made by the clients that have signed up for the auction.
+     *
+     * @return the offer book
+     */
+    public OfferBook getOfferBook() {
+        return offerBook;
+    }
 }
@@ -0,0 +1,191 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.Metrics.LatencyHistogram;
+import AuctionHouseProject.Metrics.MetricsRegistry;
+import AuctionHouseProject.PrintingFeature.ConsoleColors;
+import AuctionHouseProject.PrintingFeature.EventPrinter;
+import AuctionHouseProject.Products.Product;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Auction engine.
+ * <p>
+ * Class that describes the behaviour of the engine that runs the auctions once they have enough participants. The
+ * auctions are run in parallel on a bounded pool of threads, so the requests for the Auction House keep being processed
+ * while auctions are running. With no threads the auctions are run on the thread that has started them.
+ * <p>
+ * The engine records in the metrics how many auctions were started, how long they waited for a thread and how long
+ * they ran.
+ */
+public class AuctionEngine {
+    /**
+     * The system property used for setting the number of threads that run auctions.
+     */
+    public static final String THREADS_PROPERTY = "auctionhouse.engine.threads";
+
+    /**
+     * The Auction House whose auctions are run.
+     */
+    private final AuctionHouse auctionHouse;
+    /**
+     * The pool of threads that run the auctions, null if the auctions are run on the thread that starts them.
+     */
+    private final ExecutorService executor;
+    /**
+     * Whether the auctions are run on the thread that starts them for the moment or not.
+     */
+    private volatile boolean sequential = false;
+    /**
+     * The number of auctions that were started, but haven't ended yet.
+     */
+    private final AtomicInteger noRunningAuctions = new AtomicInteger(0);
+    /**
+     * The number of auctions that were started.
+     */
+    private final LongAdder noStartedAuctions = MetricsRegistry.getInstance().counter("auction.started");
+    /**
+     * The durations of the auctions.
+     */
+    private final LatencyHistogram auctionLatency = MetricsRegistry.getInstance().histogram("auction.time");
+    /**
+     * The durations for which the started auctions have waited for a thread of the pool.
+     */
+    private final LatencyHistogram queueLatency = MetricsRegistry.getInstance().histogram("auction.queueDelay");
+
+    /**
+     * Instantiates a new Auction Engine.
+     *
+     * @param auctionHouse the auction house whose auctions are run
+     * @param noThreads    the number of threads that run auctions, 0 for running them on the thread that starts them
+     */
+    public AuctionEngine(AuctionHouse auctionHouse, int noThreads) {
+        this.auctionHouse = auctionHouse;
+
+        if (noThreads > 0) {
+            AtomicInteger threadIndex = new AtomicInteger(0);
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "auction-engine-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            this.executor = Executors.newFixedThreadPool(noThreads, threadFactory);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Instantiates a new Auction Engine with the number of threads given by the system property, by default one for
+     * each available processor.
+     *
+     * @param auctionHouse the auction house whose auctions are run
+     * @return the auction engine
+     */
+    public static AuctionEngine fromSystemProperties(AuctionHouse auctionHouse) {
+        return new AuctionEngine(auctionHouse, Integer.getInteger(THREADS_PROPERTY,
+                Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Start an auction. It is run in parallel with the other started auctions.
+     *
+     * @param auction the auction
+     * @param product the auctioned product
+     */
+    public void startAuction(Auction auction, Product product) {
+        noStartedAuctions.increment();
+        if (executor == null || sequential) {
+            runAuction(auction, product);
+            return;
+        }
+
+        noRunningAuctions.incrementAndGet();
+        long queuedTime = System.nanoTime();
+        executor.execute(() -> {
+            try {
+                queueLatency.record(System.nanoTime() - queuedTime);
+                runAuction(auction, product);
+            } finally {
+                if (noRunningAuctions.decrementAndGet() == 0) {
+                    synchronized (this) {
+                        notifyAll();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Run an auction and record its duration. If the auction fails, the failure is logged and the auction stops being
+     * in progress, so the sign-ups that wait for it to end aren't blocked forever and it can be run again.
+     *
+     * @param auction the auction
+     * @param product the auctioned product
+     */
+    private void runAuction(Auction auction, Product product) {
+        long startTime = System.nanoTime();
+        CompletableFuture< Boolean > run = auction.getRun();
+        try {
+            auctionHouse.auctionTime(auction, product);
+        } catch (RuntimeException e) {
+            EventPrinter.getInstance().print(ConsoleColors.RED_BOLD, "The auction with the ID " + auction.getId() +
+                    " for the product " + product.getName() + " has failed: " + e + ".");
+        } finally {
+            // Only this run is ended, if it hasn't ended by itself, never a later run of the same auction.
+            auctionHouse.abortRun(auction, run);
+            auctionLatency.record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Sets whether the auctions are run on the thread that starts them, one after another, or on the pool of threads.
+     * It is used while the journal is recovered, so the auctions end in the same order as they did before.
+     *
+     * @param sequential whether the auctions are run on the thread that starts them or not
+     */
+    public void setSequential(boolean sequential) {
+        this.sequential = sequential;
+    }
+
+    /**
+     * Gets the number of auctions that were started, but haven't ended yet. The auctions run on the thread that starts
+     * them aren't counted.
+     *
+     * @return the number of running auctions
+     */
+    public int getNoRunningAuctions() {
+        return noRunningAuctions.get();
+    }
+
+    /**
+     * Wait for all the started auctions to end.
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public synchronized void awaitRunningAuctions() throws InterruptedException {
+        while (noRunningAuctions.get() != 0) {
+            wait();
+        }
+    }
+
+    /**
+     * Wait for all the started auctions to end and stop the engine.
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public void shutdown() throws InterruptedException {
+        awaitRunningAuctions();
+
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+}
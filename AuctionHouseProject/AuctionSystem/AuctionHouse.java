@@ -1,66 +1,216 @@
 package AuctionHouseProject.AuctionSystem;
 
-import AuctionHouseProject.DataStructures.Pair;
+import AuctionHouseProject.Enums.AuctionMode;
+import AuctionHouseProject.Metrics.LatencyHistogram;
+import AuctionHouseProject.Metrics.MetricsRegistry;
 import AuctionHouseProject.People.Broker;
 import AuctionHouseProject.People.Client;
+import AuctionHouseProject.People.ClientRegistry;
+import AuctionHouseProject.Persistence.AuctionOutcome;
+import AuctionHouseProject.Persistence.BidJournal;
+import AuctionHouseProject.Persistence.CommandJournal;
+import AuctionHouseProject.Persistence.ProductIds;
 import AuctionHouseProject.PrintingFeature.ConsoleColors;
+import AuctionHouseProject.PrintingFeature.EventPrinter;
 import AuctionHouseProject.Products.Product;
+import AuctionHouseProject.Products.ProductCatalogue;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The type Auction house.
  * <p>
- * Class that describes the behaviour of an Auction House. It is characterized a list of products, a list of clients, a
- * list of active auctions and also one of finished auctions and a list of brokers. It also has a lock field and an
- * instance of its own type.
+ * Class that describes the behaviour of an Auction House. It is characterized a catalogue of products, a registry of
+ * clients, the active auctions and also the finished ones and a list of brokers. It also has an instance of its own
+ * type.
+ * <p>
+ * There isn't any global lock: the catalogue and the collections of auctions are concurrent, the sign-ups and the end
+ * of an auction only take the auction's own monitor, so the auctions of different products don't contend with each
+ * other. When snapshots are taken, the endings also share the read lock of the snapshot view, which is only taken
+ * exclusively for copying the changes before a snapshot.
  */
 public class AuctionHouse {
+    /**
+     * The system property used for choosing whether the auctions end as soon as the offers can't change anymore or
+     * only after all their steps.
+     */
+    public static final String EARLY_TERMINATION_PROPERTY = "auctionhouse.auction.earlyTermination";
+    /**
+     * The system property used for choosing the mode of the auctions whose products don't specify one.
+     */
+    public static final String AUCTION_MODE_PROPERTY = "auctionhouse.auction.mode";
+
     /**
      * Instance of the Auction House.
      */
     private static AuctionHouse instanceOfAuctionHouse = null;
 
     /**
-     * The list of Products.
+     * The catalogue of Products.
      */
-    private final List< Product > products;
+    private final ProductCatalogue products;
     /**
-     * The list of Clients.
+     * The registry of Clients.
      */
-    private final List< Client > clients;
+    private final ClientRegistry clients;
     /**
-     * The list of active Auctions.
+     * The active Auctions indexed and sorted by their id.
      */
-    private final List< Auction > activeAuctions;
+    private final ConcurrentNavigableMap< Integer, Auction > activeAuctions;
     /**
-     * The list of finished Auctions.
+     * The active Auctions indexed by the id of the product that is sold in them.
      */
-    private final List< Auction > finishedAuctions;
+    private final Map< Integer, Auction > activeAuctionsByProductId;
+    /**
+     * The finished Auctions, in the order in which they ended.
+     */
+    private final Queue< Auction > finishedAuctions;
+    /**
+     * The Auctions being run at the moment, indexed by their id.
+     */
+    private final Map< Integer, Auction > runningAuctions;
     /**
      * The list of Brokers.
      */
     private final List< Broker > brokers;
 
     /**
-     * The Lock.
+     * The engine that runs the auctions.
+     */
+    private final AuctionEngine auctionEngine;
+
+    /**
+     * The printer of the messages about the Auction House's events.
+     */
+    private final EventPrinter printer = EventPrinter.getInstance();
+
+    /**
+     * Whether the auctions end as soon as the offers can't change anymore or not.
+     */
+    private volatile boolean earlyTermination = Boolean.parseBoolean(System.getProperty(EARLY_TERMINATION_PROPERTY,
+            "true"));
+
+    /**
+     * The mode of the auctions whose products don't specify one.
+     */
+    private volatile AuctionMode defaultAuctionMode = AuctionMode.valueOf(System.getProperty(AUCTION_MODE_PROPERTY,
+            AuctionMode.stepped.name()));
+
+    /**
+     * The policy that chooses the broker of a client that signs up for an auction.
+     */
+    private volatile BrokerAssignmentPolicy brokerAssignmentPolicy = BrokerAssignmentPolicy.fromSystemProperties();
+
+    /**
+     * The journal where the outcomes of the auctions are recorded, null if they aren't journaled.
+     */
+    private volatile CommandJournal journal = null;
+    /**
+     * The outcomes recovered from the journal, indexed by the journal sequence of the command that has started their
+     * auctions, which haven't been applied yet.
+     */
+    private final Map< Long, AuctionOutcome > recoveredOutcomes = new ConcurrentHashMap<>();
+    /**
+     * The ids recovered from the journal, indexed by the journal sequence of the command that has added their product,
+     * which haven't been given again yet.
+     */
+    private final Map< Long, ProductIds > recoveredProductIds = new ConcurrentHashMap<>();
+    /**
+     * The journal where the offers of every step are recorded, null if they aren't recorded.
+     */
+    private volatile BidJournal bidJournal = null;
+    /**
+     * The journal sequence of the command being executed. It is set by the thread that executes the commands and also
+     * read by the admin's task that adds a product, while that thread waits for the product to be added.
+     */
+    private long commandSequence = -1;
+    /**
+     * The view of the state that the snapshots are encoded from, null if no snapshot is taken. The changes of the
+     * state are marked in it.
+     */
+    private volatile SnapshotView snapshotView = null;
+    /**
+     * The auctions that were running when the loaded snapshot was taken, which haven't been run again yet.
+     */
+    private final List< Auction > interruptedAuctions = new ArrayList<>();
+
+    /**
+     * The number of accepted sign-ups for auctions.
+     */
+    private final LongAdder noAcceptedSignUps = MetricsRegistry.getInstance().counter("signUp.accepted");
+    /**
+     * The number of sign-ups denied because the product doesn't exist.
+     */
+    private final LongAdder noUnknownProductSignUps = MetricsRegistry.getInstance().counter(
+            "signUp.denied.unknownProduct");
+    /**
+     * The number of sign-ups denied because of the offered price.
+     */
+    private final LongAdder noLowPriceSignUps = MetricsRegistry.getInstance().counter("signUp.denied.price");
+    /**
+     * The number of sign-ups that have waited for the auction to end because it was in progress.
+     */
+    private final LongAdder noDelayedSignUps = MetricsRegistry.getInstance().counter("signUp.delayed.inProgress");
+    /**
+     * The number of steps run by the auctions.
+     */
+    private final LongAdder noAuctionSteps = MetricsRegistry.getInstance().counter("auction.steps");
+    /**
+     * The number of notifications of a new price sent by the brokers to their clients.
+     */
+    private final LongAdder noBrokerNotifications = MetricsRegistry.getInstance().counter("broker.notifications");
+    /**
+     * The number of clients asked by their brokers for a new offer.
+     */
+    private final LongAdder noOfferRequests = MetricsRegistry.getInstance().counter("broker.offerRequests");
+    /**
+     * The number of auctions that have sold their product.
+     */
+    private final LongAdder noSoldProducts = MetricsRegistry.getInstance().counter("auction.sold");
+    /**
+     * The number of auctions that have ended without selling their product.
+     */
+    private final LongAdder noUnsoldProducts = MetricsRegistry.getInstance().counter("auction.unsold");
+    /**
+     * The number of auctions that have ended with an outcome recovered from the journal.
+     */
+    private final LongAdder noRecoveredAuctions = MetricsRegistry.getInstance().counter("auction.recovered");
+    /**
+     * The durations of the bidding of the auctions, from the first request for offers to the winning offer.
+     */
+    private final LatencyHistogram biddingLatency = MetricsRegistry.getInstance().histogram("auction.bidding");
+    /**
+     * The durations of the notifications of the auctions' ending sent by the brokers.
      */
-    private final Lock lock = new ReentrantLock();
+    private final LatencyHistogram endNotificationLatency = MetricsRegistry.getInstance().histogram(
+            "broker.endNotification");
 
     /**
      * Instantiates a new Auction House.
      */
     private AuctionHouse() {
-        this.products = new ArrayList<>();
-        this.clients = new ArrayList<>();
-        this.activeAuctions = Collections.synchronizedList(new ArrayList<>());
-        this.finishedAuctions = new ArrayList<>();
+        this.products = new ProductCatalogue();
+        this.clients = new ClientRegistry();
+        this.activeAuctions = new ConcurrentSkipListMap<>();
+        this.activeAuctionsByProductId = new ConcurrentHashMap<>();
+        this.finishedAuctions = new ConcurrentLinkedQueue<>();
+        this.runningAuctions = new ConcurrentHashMap<>();
         this.brokers = new ArrayList<>();
+        this.auctionEngine = AuctionEngine.fromSystemProperties(this);
     }
 
     /**
@@ -80,12 +230,82 @@ public class AuctionHouse {
     }
 
     /**
-     * Gets the list of products available for auction.
+     * Discard the instance of the Auction House, after letting its running auctions end. The next call of
+     * getInstance() creates a new, empty one. It is used for running several independent workloads (benchmarks,
+     * tests) in the same process.
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting for the running auctions
+     */
+    static void resetInstance() throws InterruptedException {
+        if (instanceOfAuctionHouse != null) {
+            instanceOfAuctionHouse.auctionEngine.shutdown();
+            instanceOfAuctionHouse = null;
+        }
+    }
+
+    /**
+     * Gets an immutable snapshot of the list of products available for auction.
      *
      * @return the list of products available for auction
      */
     public List< Product > getProducts() {
-        return products;
+        return products.getProducts();
+    }
+
+    /**
+     * Gets an immutable snapshot of the list of products available for auction once the auctions running at the time
+     * of the call have ended, without the products that they have sold, so that a listing requested after an auction
+     * has started never shows the product that it sells.
+     * <p>
+     * Nothing waits for the running auctions: the snapshot is taken right away and the returned future completes, on
+     * the thread that ends the last of these auctions, once they have all ended. If no auction is running, it is
+     * already completed.
+     *
+     * @return the future of the list of products available for auction
+     */
+    public CompletableFuture< List< Product > > getProductsAfterRunningAuctions() {
+        // The auctions are only started by the thread that executes the commands, so none starts in the meantime.
+        List< Auction > auctions = new ArrayList<>(runningAuctions.values());
+        List< CompletableFuture< Boolean > > runs = new ArrayList<>(auctions.size());
+        for (Auction auction : auctions) {
+            runs.add(auction.getRun());
+        }
+        List< Product > productsSnapshot = products.getProducts();
+
+        if (runs.isEmpty()) {
+            return CompletableFuture.completedFuture(productsSnapshot);
+        }
+
+        return CompletableFuture.allOf(runs.toArray(new CompletableFuture< ? >[0])).handle((result, exception) -> {
+            // The products sold by these auctions may still have been in the catalogue when the snapshot was taken.
+            Set< Integer > soldProductIds = new HashSet<>();
+            for (int i = 0; i < auctions.size(); i++) {
+                if (runs.get(i).getNow(false)) {
+                    soldProductIds.add(auctions.get(i).getProductId());
+                }
+            }
+            if (soldProductIds.isEmpty()) {
+                return productsSnapshot;
+            }
+
+            List< Product > unsoldProducts = new ArrayList<>(productsSnapshot.size());
+            for (Product product : productsSnapshot) {
+                if (!soldProductIds.contains(product.getId())) {
+                    unsoldProducts.add(product);
+                }
+            }
+            return Collections.unmodifiableList(unsoldProducts);
+        });
+    }
+
+    /**
+     * Gets a product available for auction by its id.
+     *
+     * @param productId the product's id
+     * @return the product or null if there isn't any product with this id available for auction
+     */
+    public Product getProduct(int productId) {
+        return products.getProduct(productId);
     }
 
     /**
@@ -94,25 +314,54 @@ public class AuctionHouse {
      * @return the list of clients
      */
     public List< Client > getClients() {
-        return clients;
+        return clients.getClients();
     }
 
     /**
-     * Gets the list of active auctions.
+     * Gets a client by his id.
+     *
+     * @param clientId the client's id
+     * @return the client or null if there isn't any client with this id in the system
+     */
+    public Client getClient(int clientId) {
+        return clients.getClient(clientId);
+    }
+
+    /**
+     * Gets the id that the next product added to the auction house should have.
+     * <p>
+     * The id follows the one of the last product available for auction, so the id of a sold product may be given
+     * again. Nothing waits for the running auctions, so the id depends on which of them have already sold their
+     * products; the ids given are journaled with the product, and while the journal is recovered the command gets the
+     * id it was given the first time.
+     *
+     * @return the next product id
+     */
+    int getNextProductId() {
+        ProductIds recoveredIds = recoveredProductIds.isEmpty() ? null : recoveredProductIds.get(commandSequence);
+        if (recoveredIds != null) {
+            return recoveredIds.getProductId();
+        }
+
+        return products.getNextProductId();
+    }
+
+    /**
+     * Gets a snapshot of the list of active auctions, sorted by their id.
      *
      * @return the list of active auctions
      */
     public List< Auction > getActiveAuctions() {
-        return activeAuctions;
+        return new ArrayList<>(activeAuctions.values());
     }
 
     /**
-     * Gets the list of finished auctions.
+     * Gets a snapshot of the list of finished auctions, in the order in which they ended.
      *
      * @return the list of finished auctions
      */
     public List< Auction > getFinishedAuctions() {
-        return finishedAuctions;
+        return new ArrayList<>(finishedAuctions);
     }
 
     /**
@@ -124,15 +373,229 @@ public class AuctionHouse {
         return brokers;
     }
 
+    /**
+     * Gets the engine that runs the auctions.
+     *
+     * @return the auction engine
+     */
+    public AuctionEngine getAuctionEngine() {
+        return auctionEngine;
+    }
+
+    /**
+     * Mark the changes of the state in a snapshot view from now on, starting with the whole current state. It is
+     * called before any auction is started.
+     *
+     * @param snapshotView the snapshot view
+     */
+    void trackChanges(SnapshotView snapshotView) {
+        snapshotView.markAll(this);
+        this.snapshotView = snapshotView;
+    }
+
+    /**
+     * Check whether an auction is active or not.
+     *
+     * @param auction the auction
+     * @return true if the auction is active, else false
+     */
+    boolean isActive(Auction auction) {
+        return activeAuctions.get(auction.getId()) == auction;
+    }
+
+    /**
+     * Gets the auctions that were running when the loaded snapshot was taken, which haven't been run again yet.
+     *
+     * @return the interrupted auctions
+     */
+    List< Auction > getInterruptedAuctions() {
+        return Collections.unmodifiableList(interruptedAuctions);
+    }
+
+    /**
+     * Sets the journal where the outcomes of the auctions are recorded.
+     *
+     * @param journal the journal, null if the outcomes aren't journaled
+     */
+    void setJournal(CommandJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Gets the journal where the offers of every step are recorded.
+     *
+     * @return the bid journal, null if the offers aren't recorded
+     */
+    public BidJournal getBidJournal() {
+        return bidJournal;
+    }
+
+    /**
+     * Sets the journal where the offers of every step are recorded.
+     *
+     * @param bidJournal the bid journal, null if the offers aren't recorded
+     */
+    public void setBidJournal(BidJournal bidJournal) {
+        this.bidJournal = bidJournal;
+    }
+
+    /**
+     * Sets the journal sequence of the command being executed, so that the auctions it starts can be matched with
+     * their recorded outcomes.
+     *
+     * @param commandSequence the journal sequence of the command being executed
+     */
+    void setCommandSequence(long commandSequence) {
+        this.commandSequence = commandSequence;
+    }
+
+    /**
+     * Add an outcome recovered from the journal. The auction started by the same command ends with this outcome
+     * instead of being simulated.
+     *
+     * @param outcome the outcome
+     */
+    void addRecoveredOutcome(AuctionOutcome outcome) {
+        recoveredOutcomes.put(outcome.getStartSequence(), outcome);
+    }
+
+    /**
+     * Add the ids recovered from the journal. The command that has added the product gives the same ids again.
+     *
+     * @param productIds the ids
+     */
+    void addRecoveredProductIds(ProductIds productIds) {
+        recoveredProductIds.put(productIds.getCommandSequence(), productIds);
+    }
+
+    /**
+     * Discard the recovered outcomes and ids that haven't been applied.
+     *
+     * @return the number of discarded outcomes
+     */
+    int clearRecoveredOutcomes() {
+        int noOutcomes = recoveredOutcomes.size();
+        recoveredOutcomes.clear();
+        recoveredProductIds.clear();
+        return noOutcomes;
+    }
+
+    /**
+     * Whether the auctions end as soon as the offers can't change anymore or not.
+     *
+     * @return true if the auctions end as soon as the offers can't change anymore, else false
+     */
+    public boolean isEarlyTermination() {
+        return earlyTermination;
+    }
+
+    /**
+     * Sets whether the auctions end as soon as the offers can't change anymore or not.
+     *
+     * @param earlyTermination whether the auctions end as soon as the offers can't change anymore or not
+     */
+    public void setEarlyTermination(boolean earlyTermination) {
+        this.earlyTermination = earlyTermination;
+    }
+
+    /**
+     * Gets the mode of the auctions whose products don't specify one.
+     *
+     * @return the default auction mode
+     */
+    public AuctionMode getDefaultAuctionMode() {
+        return defaultAuctionMode;
+    }
+
+    /**
+     * Sets the mode of the auctions whose products don't specify one.
+     *
+     * @param defaultAuctionMode the default auction mode
+     */
+    public void setDefaultAuctionMode(AuctionMode defaultAuctionMode) {
+        this.defaultAuctionMode = defaultAuctionMode;
+    }
+
+    /**
+     * Gets the policy that chooses the broker of a client that signs up for an auction.
+     *
+     * @return the broker assignment policy
+     */
+    public BrokerAssignmentPolicy getBrokerAssignmentPolicy() {
+        return brokerAssignmentPolicy;
+    }
+
+    /**
+     * Sets the policy that chooses the broker of a client that signs up for an auction.
+     *
+     * @param brokerAssignmentPolicy the broker assignment policy
+     */
+    public void setBrokerAssignmentPolicy(BrokerAssignmentPolicy brokerAssignmentPolicy) {
+        this.brokerAssignmentPolicy = brokerAssignmentPolicy;
+    }
+
     /**
      * Sign up client into the Auction House system.
+     * <p>
+     * It may be called from several threads at once, the ids are handed out atomically by the client registry.
      *
      * @param client the client
      */
     void signUpClient(Client client) {
-        // Add the client to the client list and give him an id.
-        clients.add(client);
-        client.setId(clients.size());
+        // Add the client to the client registry and give him an id.
+        clients.signUp(client);
+
+        SnapshotView snapshotView = this.snapshotView;
+        if (snapshotView != null) {
+            snapshotView.clientChanged(client);
+        }
+    }
+
+    /**
+     * Load the state restored from a snapshot into the empty Auction House.
+     *
+     * @param restoredClients             the clients
+     * @param restoredProducts            the products available for auction
+     * @param restoredBrokers             the brokers, already holding their clients' offers
+     * @param restoredActiveAuctions      the active auctions, sorted by their id
+     * @param restoredFinishedAuctions    the finished auctions, in the order in which they ended
+     * @param restoredInterruptedAuctions the active auctions that were running, which have to be run again
+     */
+    void restore(List< Client > restoredClients, List< Product > restoredProducts, List< Broker > restoredBrokers,
+                 List< Auction > restoredActiveAuctions, List< Auction > restoredFinishedAuctions,
+                 List< Auction > restoredInterruptedAuctions) {
+        if (clients.size() != 0 || !products.isEmpty() || !brokers.isEmpty() || !activeAuctions.isEmpty()) {
+            throw new IllegalStateException("A snapshot can only be loaded into an empty auction house.");
+        }
+
+        restoredClients.forEach(clients::restore);
+        restoredProducts.forEach(products::addProduct);
+        brokers.addAll(restoredBrokers);
+        for (Auction auction : restoredActiveAuctions) {
+            activeAuctionsByProductId.put(auction.getProductId(), auction);
+            activeAuctions.put(auction.getId(), auction);
+        }
+        finishedAuctions.addAll(restoredFinishedAuctions);
+        interruptedAuctions.addAll(restoredInterruptedAuctions);
+    }
+
+    /**
+     * Run again the auctions that were running when the loaded snapshot was taken. Their participants have already
+     * signed up, so they start as soon as they are loaded, with the journal sequence of the command that has started
+     * them the first time, and a recovered outcome is applied to them as to any other auction.
+     */
+    void restartInterruptedAuctions() {
+        for (Auction auction : interruptedAuctions) {
+            Product product = products.getProduct(auction.getProductId());
+            synchronized (auction) {
+                beginRun(auction);
+            }
+
+            printer.print(ConsoleColors.RED_BOLD, "The auction for the product " + product.getName() +
+                    ", interrupted by a restart, will start again now.");
+            auctionEngine.startAuction(auction, product);
+        }
+        interruptedAuctions.clear();
     }
 
     /**
@@ -145,33 +608,75 @@ public class AuctionHouse {
         /* Find the auction for the specified product and return it. If there isn't any active auction for the product
            then null is returned.
          */
-        for (Auction auction : activeAuctions) {
-            if (auction.getProductId() == productId) {
-                return auction;
-            }
-        }
+        return activeAuctionsByProductId.get(productId);
+    }
 
-        return null;
+    /**
+     * Create an auction for a specified product, add it to the active auctions list and return it. Its id follows the
+     * one of the last active auction.
+     *
+     * @param noParticipants the number of participants
+     * @param ProductId      the product's id
+     * @param maxNoSteps     the maximum number of steps for the auction
+     * @param mode           the mode in which the auction's outcome is computed
+     * @return the auction
+     */
+    Auction createAuction(int noParticipants, int ProductId, int maxNoSteps, AuctionMode mode) {
+        return createAuction(noParticipants, ProductId, maxNoSteps, mode, 0);
     }
 
     /**
-     * Create an auction for a specified product, add it to the active auctions list and return it.
+     * Create an auction for a specified product, with a given id, add it to the active auctions list and return it.
      *
      * @param noParticipants the number of participants
      * @param ProductId      the product's id
      * @param maxNoSteps     the maximum number of steps for the auction
+     * @param mode           the mode in which the auction's outcome is computed
+     * @param auctionId      the auction's id, 0 for the id following the one of the last active auction
      * @return the auction
      */
-    Auction createAuction(int noParticipants, int ProductId, int maxNoSteps) {
-        int auctionId = 1;
-        if (activeAuctions.size() != 0) {
-            auctionId = activeAuctions.get(activeAuctions.size() - 1).getId() + 1;
+    private Auction createAuction(int noParticipants, int ProductId, int maxNoSteps, AuctionMode mode,
+                                  int auctionId) {
+        // Only the creation of auctions is serialized, so that two auctions can't get the same id. The auctions that end
+        // in the meantime remove themselves from the maps without taking this monitor.
+        AuctionLockWaitEvent lockWaitEvent = new AuctionLockWaitEvent();
+        lockWaitEvent.begin();
+        synchronized (activeAuctions) {
+            if (auctionId == 0) {
+                Map.Entry< Integer, Auction > lastEntry = activeAuctions.lastEntry();
+                auctionId = lastEntry == null ? 1 : lastEntry.getKey() + 1;
+            }
+
+            Auction newAuction = new Auction(auctionId, noParticipants, ProductId, maxNoSteps, mode);
+            lockWaitEvent.commit(AuctionLockWaitEvent.AUCTION_IDS_MONITOR, newAuction);
+            activeAuctionsByProductId.put(ProductId, newAuction);
+            activeAuctions.put(auctionId, newAuction);
+
+            return newAuction;
         }
+    }
 
-        Auction newAuction = new Auction(auctionId, noParticipants, ProductId, maxNoSteps);
-        activeAuctions.add(newAuction);
+    /**
+     * Remove an auction that isn't running from the Auction House, whether it is still active or it has finished, so
+     * that it isn't kept after its product is dropped.
+     *
+     * @param auction the auction
+     */
+    void removeAuction(Auction auction) {
+        synchronized (auction) {
+            if (auction.isInProgress()) {
+                throw new IllegalStateException("The auction with the ID " + auction.getId() + " is running.");
+            }
 
-        return newAuction;
+            activeAuctionsByProductId.remove(auction.getProductId(), auction);
+            activeAuctions.remove(auction.getId(), auction);
+            finishedAuctions.remove(auction);
+        }
+
+        SnapshotView snapshotView = this.snapshotView;
+        if (snapshotView != null) {
+            snapshotView.auctionRemoved(auction);
+        }
     }
 
     /**
@@ -182,49 +687,135 @@ public class AuctionHouse {
      * @param client       the client
      */
     public void signUpRequestForAuction(int productId, double offeredPrice, Client client) {
-        // Check if the desired product exists in the product list.
-        Product desiredProduct = null;
-
-        for (Product product : products) {
-            if (product.getId() == productId) {
-                desiredProduct = product;
-            }
-        }
+        // Check if the desired product exists in the product catalogue.
+        Product desiredProduct = products.getProduct(productId);
 
         if (desiredProduct == null) {
-            System.out.println(ConsoleColors.RED_BOLD + "There is no product with the ID " + productId + " in the " +
-                    "system." + ConsoleColors.RESET);
+            noUnknownProductSignUps.increment();
+            printer.print(ConsoleColors.RED_BOLD, "There is no product with the ID " + productId + " in the " +
+                    "system.");
             return;
         }
 
         // Check if the client's offered price is greater than the minimum price in order for the product to be sold.
         if (offeredPrice < desiredProduct.getMinPrice()) {
-            System.out.println(ConsoleColors.RED_BOLD + "The request for signing up for the auction of the product " +
+            noLowPriceSignUps.increment();
+            printer.print(ConsoleColors.RED_BOLD, "The request for signing up for the auction of the product " +
                     desiredProduct.getName() + ", sent by the client " + client.getName() + ", with the ID " +
-                    client.getId() + ", was denied because of the offered price." + ConsoleColors.RESET);
+                    client.getId() + ", was denied because of the offered price.");
             return;
         }
 
-        // Get the auction for the product and increment its number of participants.
+        // Get the auction for the product.
         Auction auction = getAuction(productId);
-        auction.setCurrentNoParticipants(auction.getCurrentNoParticipants() + 1);
+        boolean auctionMayStart;
+
+        if (auction == null) {
+            noUnknownProductSignUps.increment();
+            printer.print(ConsoleColors.RED_BOLD, "There is no product with the ID " + productId + " in the " +
+                    "system.");
+            return;
+        }
+
+        /* The client is enrolled while holding the auction's monitor, so the enrolment can't interleave with the
+           auction being run or being moved to the finished ones.
+        */
+        AuctionLockWaitEvent lockWaitEvent = new AuctionLockWaitEvent();
+        lockWaitEvent.begin();
+        synchronized (auction) {
+            lockWaitEvent.commit(AuctionLockWaitEvent.AUCTION_MONITOR, auction);
+
+            /* The participants of an auction can't change while it is running, so the sign-up waits for the run to
+               end, as it did when the auctions were run one after another. This way the same requests always have
+               the same result, however the auctions are scheduled.
+            */
+            if (auction.isInProgress()) {
+                noDelayedSignUps.increment();
+                try {
+                    while (auction.isInProgress()) {
+                        auction.wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    printer.print(ConsoleColors.RED_BOLD, "The request for signing up for the auction of the " +
+                            "product " + desiredProduct.getName() + ", sent by the client " + client.getName() +
+                            ", with the ID " + client.getId() + ", was interrupted while the auction was in progress.");
+                    return;
+                }
+            }
+
+            // The auction may have ended since it was looked up.
+            if (getAuction(productId) != auction) {
+                noUnknownProductSignUps.increment();
+                printer.print(ConsoleColors.RED_BOLD, "There is no product with the ID " + productId + " in " +
+                        "the system.");
+                return;
+            }
+
+            // Assign a broker to the client, as chosen by the broker assignment policy.
+            BrokerAssignmentPolicy brokerAssignmentPolicy = this.brokerAssignmentPolicy;
+            Broker broker = brokerAssignmentPolicy.assignBroker(brokers, auction, client);
+            broker.addClient(client, auction, offeredPrice);
+            brokerAssignmentPolicy.onLoadChanged(broker);
+            noAcceptedSignUps.increment();
+
+            // Increment the auction's number of participants.
+            auction.setCurrentNoParticipants(auction.getCurrentNoParticipants() + 1);
+            SnapshotView snapshotView = this.snapshotView;
+            if (snapshotView != null) {
+                snapshotView.auctionChanged(auction);
+            }
 
-        // Assign a broker to the client.
-        Broker broker = brokers.get(auction.getCurrentNoParticipants() % brokers.size());
-        broker.addClient(client, auction, offeredPrice);
+            printer.print(ConsoleColors.BLUE_BRIGHT, client.getName() + " has signed up for the auction of the " +
+                    "product " + desiredProduct.getName() + ".");
 
-        System.out.println(ConsoleColors.BLUE_BRIGHT + client.getName() + " has signed up for the auction of the " +
-                "product " + desiredProduct.getName() + "." + ConsoleColors.RESET);
+            printer.print(ConsoleColors.BLUE, auction.getCurrentNoParticipants() + "/" +
+                    auction.getNoParticipants() + " people have signed up for the auction of the product " +
+                    desiredProduct.getName() + ".");
 
-        System.out.println(ConsoleColors.BLUE + auction.getCurrentNoParticipants() + "/" + auction.getNoParticipants() +
-                " people have signed up for the auction of the product " + desiredProduct.getName() + "." +
-                ConsoleColors.RESET);
+            // Check if the auction may start.
+            auctionMayStart = auction.getCurrentNoParticipants() >= auction.getNoParticipants();
+            if (auctionMayStart) {
+                auction.setStartSequence(commandSequence);
+                beginRun(auction);
+            }
+        }
 
-        // Check if the auction may start.
-        if (auction.getCurrentNoParticipants() >= auction.getNoParticipants()) {
-            System.out.println(ConsoleColors.RED_BOLD + "The auction for the product " + desiredProduct.getName() +
-                    " will start now." + ConsoleColors.RESET);
-            auctionTime(auction, desiredProduct);
+        // The auction is run by the auction engine, in parallel with the other auctions.
+        if (auctionMayStart) {
+            printer.print(ConsoleColors.RED_BOLD, "The auction for the product " + desiredProduct.getName() +
+                    " will start now.");
+            auctionEngine.startAuction(auction, desiredProduct);
+        }
+    }
+
+    /**
+     * Begin a run of an auction whose participants have all signed up. It is called while holding the auction's
+     * monitor, before the auction is given to the auction engine.
+     *
+     * @param auction the auction
+     */
+    private void beginRun(Auction auction) {
+        auction.startRun();
+        runningAuctions.put(auction.getId(), auction);
+
+        // The clients of a started auction don't count in their brokers' loads anymore.
+        BrokerAssignmentPolicy brokerAssignmentPolicy = this.brokerAssignmentPolicy;
+        OfferBook offerBook = auction.getOfferBook();
+        int[] noSignUpsByBroker = new int[offerBook.getBrokers().size()];
+        for (int row = 0; row < offerBook.size(); row++) {
+            noSignUpsByBroker[offerBook.getBrokerSlot(row)]++;
+        }
+        for (int brokerSlot = 0; brokerSlot < noSignUpsByBroker.length; brokerSlot++) {
+            Broker participantBroker = offerBook.getBrokers().get(brokerSlot);
+            participantBroker.removeActiveSignUps(noSignUpsByBroker[brokerSlot]);
+            brokerAssignmentPolicy.onLoadChanged(participantBroker);
+        }
+
+        // The offers change while the auction is run, so the snapshots keep them as they are now.
+        SnapshotView snapshotView = this.snapshotView;
+        if (snapshotView != null) {
+            snapshotView.auctionStarted(auction);
         }
     }
 
@@ -240,81 +831,349 @@ public class AuctionHouse {
         }
         broker.setId(brokerId);
         brokers.add(broker);
+
+        SnapshotView snapshotView = this.snapshotView;
+        if (snapshotView != null) {
+            snapshotView.brokerChanged(broker);
+        }
     }
 
     /**
      * Method used for simulating the auction.
      * <p>
-     * The brokers send request for prices to their clients and the maximum offered price at each step is computed.
+     * The brokers send request for prices to their clients and the maximum offered price at each step is computed, or,
+     * for the auctions in proxy mode, the outcome is computed in a single pass over the offers. Different auctions may
+     * be simulated at the same time by the auction engine.
+     * <p>
+     * The auction, its steps, the brokers' notifications and the waits for the auction's monitor are recorded as
+     * Flight Recorder events, if a recording that enables them is running.
      *
      * @param auction the auction
      * @param product the product
      */
     public void auctionTime(Auction auction, Product product) {
+        AuctionRecordingEvent auctionEvent = new AuctionRecordingEvent();
+        auctionEvent.begin();
+
+        // An auction whose outcome was recorded before a restart ends with that outcome, without being simulated again.
+        AuctionOutcome recoveredOutcome = recoveredOutcomes.isEmpty() ? null :
+                recoveredOutcomes.remove(auction.getStartSequence());
+        if (recoveredOutcome != null && (recoveredOutcome.getAuctionId() != auction.getId() ||
+                recoveredOutcome.getProductId() != product.getId())) {
+            // The outcome was recorded for another auction, so it mustn't be applied to this one.
+            printer.print(ConsoleColors.RED_BOLD, "The outcome recorded for the auction with the ID " +
+                    recoveredOutcome.getAuctionId() + " of the product with the ID " + recoveredOutcome.getProductId() +
+                    " doesn't match the auction with the ID " + auction.getId() + " of the product with the ID " +
+                    product.getId() + ".");
+            recoveredOutcome = null;
+        }
+        if (recoveredOutcome != null) {
+            noRecoveredAuctions.increment();
+            printer.print(ConsoleColors.RED_BRIGHT, "The auction for the product " + product.getName() + " has " +
+                    "been recovered from the journal.");
+            boolean sold = endAuction(auction, product, clients.getClient(recoveredOutcome.getWinnerId()),
+                    recoveredOutcome.getPrice());
+            auctionEvent.recovered = true;
+            auctionEvent.commit(auction, sold, recoveredOutcome.getPrice());
+            return;
+        }
+
         // Set a random starting price lower than the minimum selling price of the product.
         double currentPrice = Math.round(product.getMinPrice() * new Random().nextDouble() / 2) + 1;
-        double priceAtCurrentStep = currentPrice;
 
-        // For keeping the client that wins the auction.
-        Client winner = null;
+        printer.print(ConsoleColors.RED_BRIGHT, "The starting price for the product " + product.getName() +
+                " is " + currentPrice + ".");
 
-        System.out.println(ConsoleColors.RED_BRIGHT + "The starting price for the product " + product.getName() +
-                " is " + currentPrice + "." + ConsoleColors.RESET);
+        /* The offers are grouped by broker once, so each step reads the offer book from the beginning to the end, and
+           the book keeps track of the leading offer from now on.
+        */
+        OfferBook offerBook = auction.getOfferBook();
+        offerBook.startBidding();
 
-        // Simulate each step of the auction.
-        for (int i = 1; i <= auction.getMaxNoSteps(); i++) {
+        // Find the winning offer, either step by step or in a single pass.
+        long biddingStartTime = System.nanoTime();
+        int winningRow;
+        if (auction.getMode() == AuctionMode.proxy) {
+            AuctionStepEvent stepEvent = new AuctionStepEvent();
+            stepEvent.begin();
+            winningRow = offerBook.resolveProxyBidding(currentPrice, product.getMinPrice());
+            double clearingPrice = winningRow >= 0 ? offerBook.getCurrentPrice(winningRow) : currentPrice;
+            recordBids(auction, offerBook, 0, clearingPrice);
+            printer.print(ConsoleColors.RED_BRIGHT, "The product " + product.getName() + " has, after the proxy " +
+                    "bidding, the price " + clearingPrice + ".");
+            stepEvent.commit(auction, 0, clearingPrice);
+        } else {
+            winningRow = runSteps(auction, product, offerBook, currentPrice, auctionEvent);
+        }
+        biddingLatency.record(System.nanoTime() - biddingStartTime);
 
-            // The brokers request offers from each of their clients that have signed up for this auction.
-            for (Broker broker : brokers) {
-                broker.notifyClients(auction, currentPrice);
+        // For keeping the client that wins the auction.
+        Client winner = null;
+        if (winningRow >= 0) {
+            winner = offerBook.getClient(winningRow);
+            currentPrice = offerBook.getCurrentPrice(winningRow);
+        }
 
-                for (Client client : broker.getClientList().keySet()) {
-                    for (Pair< Auction, Offer > auctionOfferPair : broker.getClientList().get(client)) {
+        /* The outcome is journaled before it is applied, so it survives a crash in the middle of applying it. It
+           isn't waited for: if the journal is synchronous, the messages about the outcome are held back until it is
+           on the disk.
+        */
+        CommandJournal journal = this.journal;
+        if (journal != null && auction.getStartSequence() >= 0) {
+            journal.appendAuctionOutcome(new AuctionOutcome(auction.getStartSequence(), auction.getId(),
+                    product.getId(), winner != null ? winner.getId() : -1, currentPrice));
+        }
 
-                        if (auctionOfferPair.getX() == auction) {
+        boolean sold = endAuction(auction, product, winner, currentPrice);
+        auctionEvent.commit(auction, sold, currentPrice);
+    }
 
-                            System.out.println(ConsoleColors.RED_BRIGHT + client.getName() + " has offered " +
-                                    auctionOfferPair.getY().getCurrentPrice() + " at the set " + i + " of the auction."
-                                    + ConsoleColors.RESET);
+    /**
+     * Method used for ending an auction: the product is sold to the winner, if its price is high enough, and the
+     * participants are notified of the result.
+     *
+     * @param auction      the auction
+     * @param product      the product
+     * @param winner       the client that has won the auction, null if there isn't any
+     * @param currentPrice the final price of the auction
+     * @return true if the product was sold, else false
+     */
+    private boolean endAuction(Auction auction, Product product, Client winner, double currentPrice) {
+        boolean sold = currentPrice >= product.getMinPrice();
 
-                            // Check if the client's offer is better than the actual best one.
-                            if (checkPrice(priceAtCurrentStep, auctionOfferPair.getY().getCurrentPrice(), winner,
-                                    client)) {
-                                priceAtCurrentStep = auctionOfferPair.getY().getCurrentPrice();
-                                winner = client;
-                            }
-                        }
-                    }
-                }
+        /* The ending changes the auction, the product, the participants and their brokers, so a snapshot sees either
+           all of these changes or none. It only waits for the endings in progress, never for a running auction.
+        */
+        CompletableFuture< Boolean > run;
+        SnapshotView snapshotView = this.snapshotView;
+        if (snapshotView == null) {
+            run = applyEnding(auction, product, winner, currentPrice);
+        } else {
+            Lock endingLock = snapshotView.getEndingLock();
+            endingLock.lock();
+            try {
+                snapshotView.auctionEnding(auction);
+                run = applyEnding(auction, product, winner, currentPrice);
+            } finally {
+                endingLock.unlock();
             }
-            // Update the product's price at the end of each step of the auction.
-            currentPrice = priceAtCurrentStep;
-            System.out.println(ConsoleColors.RED_BRIGHT + "The product " + product.getName() + " has, at the end of " +
-                    "step " + i + " of the auction, the price " + currentPrice + "." + ConsoleColors.RESET);
         }
 
+        // The run's future is completed after the changes, so the listings that wait for it see them.
+        run.complete(sold);
+        return sold;
+    }
+
+    /**
+     * Method used for applying the ending of an auction: the product is sold to the winner, if its price is high
+     * enough, the participants are notified of the result and the run of the auction ends.
+     *
+     * @param auction      the auction
+     * @param product      the product
+     * @param winner       the client that has won the auction, null if there isn't any
+     * @param currentPrice the final price of the auction
+     * @return the future of the run that has ended, to be completed with whether the product was sold or not
+     */
+    private CompletableFuture< Boolean > applyEnding(Auction auction, Product product, Client winner,
+                                                     double currentPrice) {
         /* If the product's current price is lower than the product's minimum selling price then the product can't be
            sold. Each broker should notify their clients that have signed up for this auction of this event.
         */
         if (currentPrice < product.getMinPrice()) {
-            System.out.println(ConsoleColors.RED_BOLD + "The auction has ended without selling the product " +
-                    product.getName() + "." + ConsoleColors.RESET);
+            noUnsoldProducts.increment();
+            printer.print(ConsoleColors.RED_BOLD, "The auction has ended without selling the product " +
+                    product.getName() + ".");
             notifyOfAuctionsEnd(auction, product, null);
-            return;
+
+            // The product is still available for auction, so the auction remains active.
+            AuctionLockWaitEvent lockWaitEvent = new AuctionLockWaitEvent();
+            lockWaitEvent.begin();
+            synchronized (auction) {
+                lockWaitEvent.commit(AuctionLockWaitEvent.AUCTION_MONITOR, auction);
+                return endRun(auction);
+            }
         }
 
         // Set the product's selling price.
         product.setSellingPrice(currentPrice);
+        noSoldProducts.increment();
 
-        System.out.println(ConsoleColors.RED_BOLD + "The product " + product.getName() + " has been sold for "
-                + product.getSellingPrice() + "." + ConsoleColors.RESET);
+        printer.print(ConsoleColors.RED_BOLD, "The product " + product.getName() + " has been sold for "
+                + product.getSellingPrice() + ".");
 
         // Each broker notifies their clients that have signed up for this auction of its result.
         notifyOfAuctionsEnd(auction, product, winner);
 
-        // Remove the auction from the active auctions list and add it to the finished ones list.
-        activeAuctions.remove(auction);
-        finishedAuctions.add(auction);
+        // Remove the auction from the active auctions and add it to the finished ones. Only the auction's own monitor is
+        // taken, so that the late sign-ups, which wait for it to end, find it gone.
+        AuctionLockWaitEvent lockWaitEvent = new AuctionLockWaitEvent();
+        lockWaitEvent.begin();
+        synchronized (auction) {
+            lockWaitEvent.commit(AuctionLockWaitEvent.AUCTION_MONITOR, auction);
+            activeAuctionsByProductId.remove(auction.getProductId(), auction);
+            activeAuctions.remove(auction.getId(), auction);
+            finishedAuctions.add(auction);
+            return endRun(auction);
+        }
+    }
+
+    /**
+     * End the run of an auction: it isn't in progress anymore and the sign-ups that wait for it are woken up. It is
+     * called while holding the auction's monitor, while the run's future is completed after releasing it, so the
+     * listings that wait for the run don't hold the monitor.
+     *
+     * @param auction the auction
+     * @return the future of the run that has ended
+     */
+    private CompletableFuture< Boolean > endRun(Auction auction) {
+        runningAuctions.remove(auction.getId(), auction);
+        auction.setInProgress(false);
+        auction.notifyAll();
+
+        return auction.getRun();
+    }
+
+    /**
+     * End a run of an auction that has failed before ending by itself, as if the product wasn't sold. Nothing is done
+     * if the run has already ended.
+     *
+     * @param auction the auction
+     * @param run     the future of the run
+     */
+    void abortRun(Auction auction, CompletableFuture< Boolean > run) {
+        if (run.isDone()) {
+            return;
+        }
+
+        // The failed auction remains active with the offers it had when it failed, which the snapshots copy.
+        SnapshotView snapshotView = this.snapshotView;
+        if (snapshotView == null) {
+            endFailedRun(auction, run);
+        } else {
+            Lock endingLock = snapshotView.getEndingLock();
+            endingLock.lock();
+            try {
+                snapshotView.auctionEnding(auction);
+                endFailedRun(auction, run);
+            } finally {
+                endingLock.unlock();
+            }
+        }
+        run.complete(false);
+    }
+
+    /**
+     * End a run of an auction that has failed, unless the auction has already been run again.
+     *
+     * @param auction the auction
+     * @param run     the future of the run
+     */
+    private void endFailedRun(Auction auction, CompletableFuture< Boolean > run) {
+        synchronized (auction) {
+            if (auction.getRun() == run) {
+                endRun(auction);
+            }
+        }
+    }
+
+    /**
+     * Method used for simulating the steps of an auction.
+     * <p>
+     * At each step the brokers send request for prices to their clients and the leading offer becomes the best one if
+     * it is at least as high as the best offer so far.
+     *
+     * @param auction       the auction
+     * @param product       the product
+     * @param offerBook     the auction's offer book, ready for the bidding
+     * @param startingPrice the product's starting price
+     * @param auctionEvent  the auction's Flight Recorder event, which is given the number of steps run
+     * @return the row of the winning offer, -1 if no offer has reached the starting price
+     */
+    private int runSteps(Auction auction, Product product, OfferBook offerBook, double startingPrice,
+                         AuctionRecordingEvent auctionEvent) {
+        double currentPrice = startingPrice;
+        double priceAtCurrentStep = startingPrice;
+        int winningRow = -1;
+        int noSteps = 0;
+        long noAskedClients = 0;
+        List< Broker > brokers = offerBook.getBrokers();
+
+        // Simulate each step of the auction.
+        for (int i = 1; i <= auction.getMaxNoSteps(); i++) {
+            /* If no client would change his offer at the current price, the remaining steps would all end with the
+               same price and the same winner, so the auction can end now.
+            */
+            if (earlyTermination && offerBook.isSettled(currentPrice)) {
+                break;
+            }
+            noSteps++;
+            AuctionStepEvent stepEvent = new AuctionStepEvent();
+            stepEvent.begin();
+
+            /* The brokers request offers from each of their clients that have signed up for this auction. Only the
+               brokers and clients in the auction's offer book are visited.
+            */
+            for (int brokerSlot = 0; brokerSlot < brokers.size(); brokerSlot++) {
+                BrokerNotificationEvent notificationEvent = new BrokerNotificationEvent();
+                notificationEvent.begin();
+                Broker broker = brokers.get(brokerSlot);
+                int noOfferRequests = broker.notifyClients(auction, brokerSlot, currentPrice);
+                notificationEvent.commit(auction, i, broker.getId(), noOfferRequests);
+                noAskedClients += noOfferRequests;
+
+                // The messages about bids may be sampled, so they are only built if they are printed.
+                int endRow = offerBook.getEndRow(brokerSlot);
+                for (int row = offerBook.getFirstRow(brokerSlot); row < endRow; row++) {
+                    if (printer.isBidPrinted()) {
+                        printer.print(ConsoleColors.RED_BRIGHT, offerBook.getClient(row).getName() + " has offered " +
+                                offerBook.getCurrentPrice(row) + " at the set " + i + " of the auction.");
+                    }
+                }
+            }
+
+            /* The leading offer wins the step if it is at least as high as the best offer so far. The offers only go
+               up, so when the prices are equal the leading offer is the one that would have won the tie.
+            */
+            int leadingRow = offerBook.getLeadingRow();
+            if (leadingRow >= 0 && offerBook.getCurrentPrice(leadingRow) >= priceAtCurrentStep) {
+                priceAtCurrentStep = offerBook.getCurrentPrice(leadingRow);
+                winningRow = leadingRow;
+            }
+            // Update the product's price at the end of each step of the auction.
+            currentPrice = priceAtCurrentStep;
+            recordBids(auction, offerBook, i, currentPrice);
+            printer.print(ConsoleColors.RED_BRIGHT, "The product " + product.getName() + " has, at the end of " +
+                    "step " + i + " of the auction, the price " + currentPrice + ".");
+            stepEvent.commit(auction, i, currentPrice);
+        }
+        auctionEvent.noSteps = noSteps;
+
+        // The metrics are updated once for all the steps of the auction.
+        noAuctionSteps.add(noSteps);
+        noBrokerNotifications.add((long) noSteps * offerBook.size());
+        noOfferRequests.add(noAskedClients);
+
+        return winningRow;
+    }
+
+    /**
+     * Method used for recording the offers of a step in the bid journal, if one is used.
+     *
+     * @param auction      the auction
+     * @param offerBook    the auction's offer book
+     * @param step         the step, 0 for the auctions resolved by proxy bidding
+     * @param leadingPrice the auction's price at the end of the step
+     */
+    private void recordBids(Auction auction, OfferBook offerBook, int step, double leadingPrice) {
+        BidJournal bidJournal = this.bidJournal;
+        if (bidJournal == null) {
+            return;
+        }
+
+        for (int row = 0; row < offerBook.size(); row++) {
+            bidJournal.append(auction.getId(), step, offerBook.getClient(row).getId(), offerBook.getCurrentPrice(row),
+                    leadingPrice);
+        }
     }
 
     /**
@@ -325,56 +1184,58 @@ public class AuctionHouse {
      * @param winner  the auction's winner
      */
     private void notifyOfAuctionsEnd(Auction auction, Product product, Client winner) {
-        for (Broker broker : brokers) {
-            broker.notifyClientsOfAuctionEnding(auction, winner, product);
+        // Only the brokers that represent participants of this auction have to notify their clients.
+        long startTime = System.nanoTime();
+        OfferBook offerBook = auction.getOfferBook();
+        List< Broker > brokers = offerBook.getBrokers();
+
+        // A recovered auction ends without bidding, so its offers may not have been grouped by broker yet.
+        offerBook.groupByBroker();
+        for (int brokerSlot = 0; brokerSlot < brokers.size(); brokerSlot++) {
+            Broker broker = brokers.get(brokerSlot);
+            BrokerNotificationEvent notificationEvent = new BrokerNotificationEvent();
+            notificationEvent.begin();
+            broker.notifyClientsOfAuctionEnding(auction, brokerSlot, winner, product);
+            notificationEvent.commit(auction, 0, broker.getId(), 0);
         }
+
+        offerBook.clear();
+        endNotificationLatency.record(System.nanoTime() - startTime);
     }
 
     /**
-     * Method used for comparing the product's current price with a client's offer.
+     * List the products available for auction.
+     * <p>
+     * The products are listed from an immutable snapshot of the catalogue, taken when the listing was requested, so
+     * the listing neither takes a lock nor sees the products added or removed while it is printed.
      *
-     * @param currentPrice           the product's current price
-     * @param offeredPrice           the client's offered price
-     * @param currentFavouriteClient the client that offered the current price for the product
-     * @param client                 the client that made the new offer
-     * @return True if the new offer is greater than the current one, else False
+     * @param productsSnapshot the snapshot of the products available for auction
      */
-    private Boolean checkPrice(double currentPrice, double offeredPrice, Client currentFavouriteClient, Client client) {
-        /* Compare the offers by their prices and if necessary by the number of auctions won by each of these two
-           clients.
-        */
-        if (offeredPrice > currentPrice) {
-            return true;
-        } else if (offeredPrice == currentPrice) {
-            return currentFavouriteClient == null || currentFavouriteClient.getNoWonAuctions() <=
-                    client.getNoWonAuctions();
+    public void listProducts(List< Product > productsSnapshot) {
+        if (productsSnapshot.isEmpty()) {
+            printer.print(ConsoleColors.RED_BOLD, "At the moment there is no product available for auction.");
+        } else {
+            LatencyPolicy latencyPolicy = LatencyPolicy.getInstance();
+            productsSnapshot.forEach((product) -> {
+                printer.print(ConsoleColors.YELLOW, product.toString());
+                try {
+                    latencyPolicy.pause();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            });
         }
-
-        return false;
     }
 
     /**
-     * List the products available for auction.
+     * Add product to the auction house. Its auction has the default mode.
+     *
+     * @param product                     the product
+     * @param maxNoStepsForAuction        the maximum number of steps for the auction
+     * @param minNoParticipantsForAuction the minimum number of participants for the auction
      */
-    public void listProducts() {
-        lock.lock();
-        try {
-            if (products.size() == 0) {
-                System.out.println(ConsoleColors.RED_BOLD + "At the moment there is no product available for auction." +
-                        ConsoleColors.RESET);
-            } else {
-                products.forEach((product) -> {
-                    System.out.println(ConsoleColors.YELLOW + product + ConsoleColors.RESET);
-                    try {
-                        Thread.sleep((int) (Math.random() * 1000));
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                });
-            }
-        } finally {
-            lock.unlock();
-        }
+    public void addProduct(Product product, int maxNoStepsForAuction, int minNoParticipantsForAuction) {
+        addProduct(product, maxNoStepsForAuction, minNoParticipantsForAuction, null);
     }
 
     /**
@@ -383,20 +1244,33 @@ public class AuctionHouse {
      * @param product                     the product
      * @param maxNoStepsForAuction        the maximum number of steps for the auction
      * @param minNoParticipantsForAuction the minimum number of participants for the auction
+     * @param auctionMode                 the mode of the auction, null for the default mode
      */
-    public void addProduct(Product product, int maxNoStepsForAuction, int minNoParticipantsForAuction) {
-        lock.lock();
-        try {
-            products.add(product);
-            Auction auction = createAuction(minNoParticipantsForAuction, product.getId(), maxNoStepsForAuction);
+    public void addProduct(Product product, int maxNoStepsForAuction, int minNoParticipantsForAuction,
+                           AuctionMode auctionMode) {
+        products.addProduct(product);
 
-            System.out.println(ConsoleColors.GREEN + "The product " + product.getName() + " with the ID " +
-                    product.getId() + " can be bought in the auction with the ID " +
-                    auction.getId() + "." + ConsoleColors.RESET);
+        /* While the journal is recovered the auction gets the id it was given the first time, otherwise the ids are
+           journaled before they are printed, so they are given again after a restart.
+        */
+        ProductIds recoveredIds = recoveredProductIds.isEmpty() ? null : recoveredProductIds.remove(commandSequence);
+        Auction auction = createAuction(minNoParticipantsForAuction, product.getId(), maxNoStepsForAuction,
+                auctionMode != null ? auctionMode : defaultAuctionMode,
+                recoveredIds != null ? recoveredIds.getAuctionId() : 0);
+        CommandJournal journal = this.journal;
+        if (journal != null && recoveredIds == null && commandSequence >= 0) {
+            journal.appendProductIds(new ProductIds(commandSequence, product.getId(), auction.getId()));
+        }
 
-        } finally {
-            lock.unlock();
+        SnapshotView snapshotView = this.snapshotView;
+        if (snapshotView != null) {
+            snapshotView.productChanged(product);
+            snapshotView.auctionChanged(auction);
         }
+
+        printer.print(ConsoleColors.GREEN, "The product " + product.getName() + " with the ID " +
+                product.getId() + " can be bought in the auction with the ID " +
+                auction.getId() + ".");
     }
 
     /**
@@ -405,11 +1279,11 @@ public class AuctionHouse {
      * @param product the product to be removed
      */
     public void removeProduct(Product product) {
-        lock.lock();
-        try {
-            products.remove(product);
-        } finally {
-            lock.unlock();
+        products.removeProduct(product);
+
+        SnapshotView snapshotView = this.snapshotView;
+        if (snapshotView != null) {
+            snapshotView.productChanged(product);
         }
     }
 }
@@ -1,12 +1,26 @@
 package AuctionHouseProject.AuctionSystem;
 
+import AuctionHouseProject.Enums.AuctionMode;
+import AuctionHouseProject.Enums.CommandType;
 import AuctionHouseProject.Enums.Company;
+import AuctionHouseProject.Metrics.LatencyHistogram;
+import AuctionHouseProject.Metrics.MetricsRegistry;
 import AuctionHouseProject.People.*;
+import AuctionHouseProject.Persistence.AuctionOutcome;
+import AuctionHouseProject.Persistence.CommandJournal;
+import AuctionHouseProject.Persistence.DurableEventSink;
+import AuctionHouseProject.Persistence.JournalRecordHandler;
+import AuctionHouseProject.Persistence.ProductIds;
 import AuctionHouseProject.PrintingFeature.ConsoleColors;
+import AuctionHouseProject.PrintingFeature.EventPrinter;
 import AuctionHouseProject.Products.Product;
 import AuctionHouseProject.Products.ProductFactory;
 
-import static java.util.Arrays.copyOfRange;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The type Auction house service.
@@ -23,110 +37,432 @@ public class AuctionHouseService {
      * The Admin.
      */
     Admin admin;
+    /**
+     * The printer of the messages about the Auction House's events.
+     */
+    EventPrinter printer;
+    /**
+     * The tokenizer of the commands.
+     */
+    private final CommandTokenizer tokenizer = new CommandTokenizer();
+    /**
+     * The factory of the products.
+     */
+    private final ProductFactory productFactory = new ProductFactory();
+    /**
+     * The journal where the accepted commands are recorded, null if they aren't journaled.
+     */
+    private CommandJournal journal = null;
+    /**
+     * The journal sequence of the last executed command, -1 if none was journaled.
+     */
+    private long commandSequence = -1;
+    /**
+     * The periodic snapshots of the Auction House's state, null if no snapshot is taken.
+     */
+    private Snapshotter snapshotter = null;
+    /**
+     * The numbers of commands, indexed by the ordinal of their type.
+     */
+    private final LongAdder[] noCommands = new LongAdder[CommandType.values().length];
+    /**
+     * The latencies of the sampled commands, indexed by the ordinal of their type.
+     */
+    private final LatencyHistogram[] commandLatencies = new LatencyHistogram[CommandType.values().length];
+    /**
+     * One in how many commands has its latency recorded.
+     */
+    private final int commandSampling = Math.max(1, Integer.getInteger(MetricsRegistry.COMMAND_SAMPLING_PROPERTY,
+            16));
+    /**
+     * The number of commands left until the next sampled one.
+     */
+    private int noCommandsUntilSample = 1;
+    /**
+     * The numbers of commands that haven't been added to the metrics yet, indexed by the ordinal of their type.
+     */
+    private final int[] noUnpublishedCommands = new int[CommandType.values().length];
+    /**
+     * The number of commands that were ignored because their type isn't known.
+     */
+    private final LongAdder noIgnoredCommands;
 
     /**
      * Instantiates a new Auction House Service.
      */
     public AuctionHouseService() {
+        printer = EventPrinter.getInstance();
         auctionHouse = AuctionHouse.getInstance();
-        System.out.println(ConsoleColors.RED + "Welcome to the Online Auction House!" + ConsoleColors.RESET);
+        printer.print(ConsoleColors.RED, "Welcome to the Online Auction House!");
 
         admin = new Admin();
-        System.out.println(ConsoleColors.RED_BOLD + "The admin has connected." + ConsoleColors.RESET);
+        printer.print(ConsoleColors.RED_BOLD, "The admin has connected.");
+
+        // The metrics are looked up once, so the commands only update them.
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        for (CommandType commandType : CommandType.values()) {
+            noCommands[commandType.ordinal()] = metrics.counter("command." + commandType.name());
+            commandLatencies[commandType.ordinal()] = metrics.histogram("command." + commandType.name() + ".latency");
+        }
+        noIgnoredCommands = metrics.counter("command.ignored");
     }
 
     /**
      * Control panel.
      * <p>
-     * This method is used for converting commands/requests to actions.
+     * This method is used for converting commands/requests to actions. The commands are processed one at a time and
+     * each one is counted in the metrics of its type. Reading the clock costs almost as much as a simple command, so
+     * only a sample of the commands has its latency recorded, and the counts are added to the metrics at each sampled
+     * command.
      *
      * @param command the command
      */
     void controlPanel(String command) {
-        // Tokenize the command.
-        command = command.replace("\n", "");
-        String[] commandInfo = command.split(" (?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
+        controlPanel(tokenizer.tokenize(command));
+    }
 
+    /**
+     * Control panel.
+     * <p>
+     * This method executes a command that has already been tokenized, for example by the thread that reads the
+     * commands from a file, the same way as the commands given as text.
+     *
+     * @param commandInfo the tokenized command
+     */
+    void controlPanel(CommandTokenizer commandInfo) {
+        boolean sampled = --noCommandsUntilSample == 0;
+        long startTime = 0;
+        if (sampled) {
+            noCommandsUntilSample = commandSampling;
+            startTime = System.nanoTime();
+        }
+
+        if (commandInfo.getCommandType() == null) {
+            noIgnoredCommands.increment();
+            return;
+        }
+
+        /* The accepted command is journaled before it is executed, without waiting for the disk; if the journal is
+           synchronous, the messages about it are held back until it is on the disk.
+        */
+        if (journal != null) {
+            commandSequence = journal.appendCommand(commandInfo.getCommand().toString());
+            auctionHouse.setCommandSequence(commandSequence);
+        }
+
+        execute(commandInfo);
+        int commandType = commandInfo.getCommandType().ordinal();
+        noUnpublishedCommands[commandType]++;
+        if (sampled) {
+            commandLatencies[commandType].record(System.nanoTime() - startTime);
+            publishCommandCounts();
+        }
+
+        if (snapshotter != null) {
+            snapshotter.afterCommand(commandSequence);
+        }
+    }
+
+    /**
+     * Add the numbers of commands counted since the last time to the metrics.
+     */
+    private void publishCommandCounts() {
+        for (int commandType = 0; commandType < noUnpublishedCommands.length; commandType++) {
+            if (noUnpublishedCommands[commandType] != 0) {
+                noCommands[commandType].add(noUnpublishedCommands[commandType]);
+                noUnpublishedCommands[commandType] = 0;
+            }
+        }
+    }
+
+    /**
+     * Load the last snapshot of the Auction House's state, if there is one, and take snapshots periodically from now
+     * on.
+     *
+     * @param snapshotter the snapshotter
+     * @return the journal sequence of the last command that the loaded snapshot covers, -1 if there isn't any
+     * @throws IOException if the snapshot can't be read
+     */
+    long restoreSnapshots(Snapshotter snapshotter) throws IOException {
+        commandSequence = snapshotter.load();
+        this.snapshotter = snapshotter;
+
+        return commandSequence;
+    }
+
+    /**
+     * Run again the auctions that were running when the loaded snapshot was taken, if the recovery of the journal
+     * hasn't already done it.
+     */
+    void restartInterruptedAuctions() {
+        auctionHouse.restartInterruptedAuctions();
+    }
+
+    /**
+     * Recover the state of the Auction House from a journal, then journal the next commands to it.
+     * <p>
+     * The outcomes of the auctions and the ids given to the products are read first, then the commands that follow
+     * the loaded snapshot, if any, are executed again in the order in which they were accepted. The auctions whose
+     * outcomes were recorded end with them, without being simulated again, while the ones that were interrupted by the
+     * crash are simulated and their outcomes are journaled. The auctions that were running when the snapshot was taken
+     * are run again first, with their recorded outcomes if any. The products and auctions get the ids they were given
+     * the first time. The auctions are run one after another while the commands are executed again, so every command
+     * has the same effect as when it was accepted and each outcome is applied to the auction it was recorded for.
+     *
+     * @param journal          the journal
+     * @param snapshotSequence the journal sequence of the last command covered by the loaded snapshot, -1 if none
+     * @throws IOException          if the journal can't be read
+     * @throws InterruptedException if the thread was interrupted while waiting for the recovered auctions
+     */
+    void recover(CommandJournal journal, long snapshotSequence) throws IOException, InterruptedException {
+        long startTime = System.nanoTime();
+        auctionHouse.setJournal(journal);
+
+        // The auctions interrupted while the snapshot was taken have started before it, but they haven't ended in it.
+        Set< Long > interruptedStartSequences = new HashSet<>();
+        for (Auction auction : auctionHouse.getInterruptedAuctions()) {
+            interruptedStartSequences.add(auction.getStartSequence());
+        }
+
+        CommandJournal.read(journal.getFile(), new JournalRecordHandler() {
+            @Override
+            public void onCommand(long sequence, String command) {
+            }
+
+            @Override
+            public void onAuctionOutcome(long sequence, AuctionOutcome outcome) {
+                // The other auctions started before the snapshot have already ended in it.
+                if (outcome.getStartSequence() > snapshotSequence ||
+                        interruptedStartSequences.contains(outcome.getStartSequence())) {
+                    auctionHouse.addRecoveredOutcome(outcome);
+                }
+            }
+
+            @Override
+            public void onProductIds(long sequence, ProductIds productIds) {
+                // The products added before the snapshot are already in it.
+                if (productIds.getCommandSequence() > snapshotSequence) {
+                    auctionHouse.addRecoveredProductIds(productIds);
+                }
+            }
+        });
+
+        long[] noCommands = {0};
+        AuctionEngine auctionEngine = auctionHouse.getAuctionEngine();
+        auctionEngine.setSequential(true);
+        try {
+            auctionHouse.restartInterruptedAuctions();
+            replayCommands(journal, snapshotSequence, noCommands);
+        } finally {
+            auctionEngine.setSequential(false);
+        }
+
+        // The recovered auctions end before the next commands are executed.
+        auctionEngine.awaitRunningAuctions();
+        TaskExecutor.getInstance().awaitPendingTasks();
+        int noUnusedOutcomes = auctionHouse.clearRecoveredOutcomes();
+        this.journal = journal;
+
+        // The messages about the next commands are only printed once the commands are on the disk.
+        if (journal.isSync()) {
+            printer.setSink(new DurableEventSink(printer.getSink(), journal));
+        }
+
+        System.err.printf("%d commands recovered from %s in %.3f s (%d recorded outcomes not matched).%n",
+                noCommands[0], journal.getFile(), (System.nanoTime() - startTime) / 1e9, noUnusedOutcomes);
+    }
+
+    /**
+     * Execute again the journaled commands that follow the loaded snapshot, in the order in which they were accepted.
+     *
+     * @param journal          the journal
+     * @param snapshotSequence the journal sequence of the last command covered by the loaded snapshot, -1 if none
+     * @param noCommands       the number of executed commands, incremented for each of them
+     * @throws IOException if the journal can't be read
+     */
+    private void replayCommands(CommandJournal journal, long snapshotSequence, long[] noCommands) throws IOException {
+        CommandJournal.read(journal.getFile(), new JournalRecordHandler() {
+            @Override
+            public void onCommand(long sequence, String command) {
+                CommandTokenizer commandInfo = tokenizer.tokenize(command);
+                if (sequence <= snapshotSequence || commandInfo.getCommandType() == null) {
+                    return;
+                }
+
+                // A command that has failed before fails again, but it mustn't stop the recovery.
+                commandSequence = sequence;
+                auctionHouse.setCommandSequence(sequence);
+                try {
+                    execute(commandInfo);
+                } catch (RuntimeException e) {
+                    printer.print(ConsoleColors.RED_BOLD, "The command \"" + command + "\" couldn't be recovered: " +
+                            e + ".");
+                }
+                noCommands[0]++;
+            }
+
+            @Override
+            public void onAuctionOutcome(long sequence, AuctionOutcome outcome) {
+            }
+
+            @Override
+            public void onProductIds(long sequence, ProductIds productIds) {
+            }
+        });
+    }
+
+    /**
+     * Execute a tokenized command.
+     *
+     * @param commandInfo the tokenized command
+     */
+    private void execute(CommandTokenizer commandInfo) {
         // Execute the command.
-        switch (commandInfo[0]) {
+        switch (commandInfo.getCommandType()) {
             // Request for adding brokers to the Auction System by the admin.
-            case "addBrokers" -> addBrokers(Integer.parseInt(commandInfo[1]));
+            case addBrokers -> addBrokers(commandInfo.parseInt(1));
 
             // Request for signing up a new client into the Auction System.
-            case "addClient" -> {
+            case addClient -> {
                 Client newClient = null;
 
-                if (commandInfo[1].equals("NaturalPerson")) {
-                    newClient = createClientNaturalPerson(commandInfo[2].replace("\"", ""),
-                            commandInfo[3], commandInfo[4]);
-                } else if (commandInfo[1].equals("LegalPerson")) {
-                    newClient = createClientLegalPerson(commandInfo[2].replace("\"", ""),
-                            commandInfo[3], commandInfo[4], Double.parseDouble(commandInfo[5]));
+                if (commandInfo.tokenEquals(1, "NaturalPerson")) {
+                    newClient = createClientNaturalPerson(commandInfo.getToken(2), commandInfo.getToken(3),
+                            commandInfo.getToken(4));
+                } else if (commandInfo.tokenEquals(1, "LegalPerson")) {
+                    newClient = createClientLegalPerson(commandInfo.getToken(2), commandInfo.getToken(3),
+                            commandInfo.getToken(4), commandInfo.parseDouble(5));
                 }
 
                 if (newClient != null) {
                     auctionHouse.signUpClient(newClient);
-                    System.out.println(ConsoleColors.PURPLE + newClient.getName() + " has joined the online auction " +
-                            "system with the client ID " + newClient.getId() + "." + ConsoleColors.RESET);
+                    printer.print(ConsoleColors.PURPLE, newClient.getName() + " has joined the online auction " +
+                            "system with the client ID " + newClient.getId() + ".");
                 } else {
-                    System.out.println(ConsoleColors.RED_BOLD + "An error has occurred while trying to add the client" +
-                            " to the system. Please contact the support team." + ConsoleColors.RESET);
+                    printer.print(ConsoleColors.RED_BOLD, "An error has occurred while trying to add the client" +
+                            " to the system. Please contact the support team.");
                 }
             }
 
             // Request for adding a new product to the Auction House by the admin.
-            case "addProduct" -> {
-                String productName = commandInfo[2].replace("\"", "");
-                int year = Integer.parseInt(commandInfo[3]);
-                double minPrice = Double.parseDouble(commandInfo[4]);
-                int productId = 1;
-                if (auctionHouse.getProducts().size() != 0) {
-                    productId = auctionHouse.getProducts().get(auctionHouse.getProducts().size() - 1).getId() + 1;
-                }
-                String[] productInfo = copyOfRange(commandInfo, 5, 7);
+            case addProduct -> {
+                String productName = commandInfo.getToken(2);
+                int year = commandInfo.parseInt(3);
+                double minPrice = commandInfo.parseDouble(4);
+                int productId = auctionHouse.getNextProductId();
+                String[] productInfo = {commandInfo.getToken(5), commandInfo.getToken(6)};
 
 
-                Product newProduct = new ProductFactory().createProduct(commandInfo[1], productName, year,
+                Product newProduct = productFactory.createProduct(commandInfo.getToken(1), productName, year,
                         minPrice, productId, productInfo);
 
+                // The mode of the product's auction may be given after the other details of the product.
+                AuctionMode auctionMode = null;
+                if (commandInfo.getNoTokens() > 9) {
+                    auctionMode = parseAuctionMode(commandInfo.getToken(9));
+                    if (auctionMode == null) {
+                        printer.print(ConsoleColors.RED_BOLD, "An error has occurred while trying to add the " +
+                                "product " + productName + " to the system: there is no auction mode called " +
+                                commandInfo.getToken(9) + ".");
+                        return;
+                    }
+                }
+
+                /* The next commands may refer to the new product, so wait for it to be added, but not for the simulated
+                   latency that follows, which goes on in the background.
+                */
                 if (newProduct != null) {
-                    admin.addProductToAuctionHouse(newProduct, Integer.parseInt(commandInfo[7]),
-                            Integer.parseInt(commandInfo[8]));
+                    admin.addProductToAuctionHouse(newProduct, commandInfo.parseInt(7),
+                            commandInfo.parseInt(8), auctionMode).join();
                 }
             }
 
             // Request for printing the products available for auction by a client.
-            case "listProducts" -> {
-                int clientId = Integer.parseInt(commandInfo[1]);
-                for (Client client : auctionHouse.getClients()) {
-                    if (client.getId() == clientId) {
-                        client.requestListOfProducts();
-                        return;
-                    }
+            case listProducts -> {
+                int clientId = commandInfo.parseInt(1);
+                Client client = auctionHouse.getClient(clientId);
+                if (client != null) {
+                    client.requestListOfProducts();
+                    return;
                 }
 
-                System.out.println(ConsoleColors.RED_BOLD + "The client with the ID " + clientId + " was not found in" +
-                        " the system." + ConsoleColors.RESET);
+                printer.print(ConsoleColors.RED_BOLD, "The client with the ID " + clientId + " was not found in" +
+                        " the system.");
             }
 
             // Request for signing up for an auction by a client.
-            case "requestSignUpForAuction" -> {
-                Client clientToEnroll = null;
-                int idClient = Integer.parseInt(commandInfo[1]);
-                for (Client client : auctionHouse.getClients()) {
-                    if (client.getId() == idClient) {
-                        clientToEnroll = client;
-                    }
-                }
+            case requestSignUpForAuction -> {
+                int idClient = commandInfo.parseInt(1);
+                Client clientToEnroll = auctionHouse.getClient(idClient);
                 if (clientToEnroll != null) {
-                    auctionHouse.signUpRequestForAuction(Integer.parseInt(commandInfo[2]),
-                            Double.parseDouble(commandInfo[3]), clientToEnroll);
+                    auctionHouse.signUpRequestForAuction(commandInfo.parseInt(2), commandInfo.parseDouble(3),
+                            clientToEnroll);
                 }
             }
         }
 
     }
 
+
+    /**
+     * Close the control panel.
+     * <p>
+     * The auctions and the background operations that are still running are allowed to end before the auction
+     * engine and the task executor are stopped, then a last snapshot is taken, the journals are closed, the metrics are
+     * dumped for the last time and the messages that haven't been printed yet are flushed.
+     */
+    void close() {
+        try {
+            auctionHouse.getAuctionEngine().shutdown();
+            TaskExecutor.getInstance().shutdown();
+
+            if (snapshotter != null) {
+                snapshotter.close(commandSequence);
+                snapshotter = null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException("The last snapshot couldn't be written.", e);
+        }
+
+        if (auctionHouse.getBidJournal() != null) {
+            auctionHouse.getBidJournal().close();
+            auctionHouse.setBidJournal(null);
+        }
+
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("The journal " + journal.getFile() + " couldn't be closed.", e);
+            } finally {
+                auctionHouse.setJournal(null);
+                journal = null;
+            }
+        }
+
+        publishCommandCounts();
+        MetricsRegistry.getInstance().stopPeriodicDump();
+        printer.close();
+    }
+
+    /**
+     * Method used for finding an auction mode by its name.
+     *
+     * @param name the auction mode's name
+     * @return the auction mode, null if there is no auction mode with this name
+     */
+    private AuctionMode parseAuctionMode(String name) {
+        for (AuctionMode auctionMode : AuctionMode.values()) {
+            if (auctionMode.name().equals(name)) {
+                return auctionMode;
+            }
+        }
+
+        return null;
+    }
+
     /**
      * Method used for creating a new client which is a Legal Person.
      *
@@ -162,7 +498,6 @@ public class AuctionHouseService {
         for (int i = 0; i < noBrokers; i++) {
             auctionHouse.addBroker(new Broker());
         }
-        System.out.println(ConsoleColors.CYAN + noBrokers + " new brokers have been employed by the auction house."
-                + ConsoleColors.RESET);
+        printer.print(ConsoleColors.CYAN, noBrokers + " new brokers have been employed by the auction house.");
     }
 }
@@ -0,0 +1,379 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.Enums.AuctionMode;
+import AuctionHouseProject.Enums.Colors;
+import AuctionHouseProject.Enums.Company;
+import AuctionHouseProject.People.Broker;
+import AuctionHouseProject.People.Client;
+import AuctionHouseProject.People.LegalPerson;
+import AuctionHouseProject.People.NaturalPerson;
+import AuctionHouseProject.Products.Furniture;
+import AuctionHouseProject.Products.Jewelry;
+import AuctionHouseProject.Products.Painting;
+import AuctionHouseProject.Products.Product;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The type Auction house snapshot.
+ * <p>
+ * Class that describes the binary format of the state of the Auction House: the clients with their statistics, the
+ * products of all the types with their prices, the brokers with their earnings, the active auctions with the offers
+ * of their participants (and so the brokers' clients) and the finished auctions. The state is encoded from the copies
+ * kept by the snapshot view, so it can be encoded while the Auction House goes on changing. Loading the state from
+ * this format skips the parsing of the commands: the products are built directly from their fields, by the builders
+ * of their types, instead of through the factory's strings. The auctions that were running are loaded as auctions
+ * that have to be run again.
+ */
+final class AuctionHouseSnapshot {
+    /**
+     * The type of the natural persons.
+     */
+    private static final byte NATURAL_PERSON = 0;
+    /**
+     * The type of the legal persons.
+     */
+    private static final byte LEGAL_PERSON = 1;
+    /**
+     * The type of the paintings.
+     */
+    private static final byte PAINTING = 0;
+    /**
+     * The type of the furniture.
+     */
+    private static final byte FURNITURE = 1;
+    /**
+     * The type of the jewelry.
+     */
+    private static final byte JEWELRY = 2;
+
+    /**
+     * Instantiates a new Auction House Snapshot.
+     */
+    private AuctionHouseSnapshot() {
+    }
+
+    /**
+     * Encode the state of the Auction House copied into a snapshot view. The view mustn't be copied into while it is
+     * encoded.
+     *
+     * @param view the snapshot view
+     * @return the encoded state
+     * @throws IOException if the state can't be encoded
+     */
+    static ByteArrayOutputStream encode(SnapshotView view) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024 * 1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        Collection< SnapshotView.ClientState > clients = view.getClients();
+        out.writeInt(clients.size());
+        for (SnapshotView.ClientState client : clients) {
+            writeClient(out, client);
+        }
+
+        List< SnapshotView.ProductState > products = view.getProducts();
+        out.writeInt(products.size());
+        for (SnapshotView.ProductState product : products) {
+            writeProduct(out, product);
+        }
+
+        Collection< SnapshotView.BrokerState > brokers = view.getBrokers();
+        out.writeInt(brokers.size());
+        for (SnapshotView.BrokerState broker : brokers) {
+            out.writeInt(broker.id);
+            out.writeDouble(broker.earnings);
+        }
+
+        List< SnapshotView.AuctionState > activeAuctions = view.getActiveAuctions();
+        out.writeInt(activeAuctions.size());
+        for (SnapshotView.AuctionState auction : activeAuctions) {
+            writeAuction(out, auction);
+        }
+
+        Collection< SnapshotView.AuctionState > finishedAuctions = view.getFinishedAuctions();
+        out.writeInt(finishedAuctions.size());
+        for (SnapshotView.AuctionState auction : finishedAuctions) {
+            writeAuction(out, auction);
+        }
+
+        out.flush();
+        return bytes;
+    }
+
+    /**
+     * Decode the state of an Auction House and load it into an empty one.
+     *
+     * @param auctionHouse the empty auction house
+     * @param content      the encoded state
+     * @throws IOException if the state can't be decoded
+     */
+    static void restore(AuctionHouse auctionHouse, byte[] content) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+
+        int noClients = in.readInt();
+        List< Client > clients = new ArrayList<>(noClients);
+        Map< Integer, Client > clientsById = new HashMap<>(2 * noClients);
+        for (int i = 0; i < noClients; i++) {
+            Client client = readClient(in);
+            clients.add(client);
+            clientsById.put(client.getId(), client);
+        }
+
+        int noProducts = in.readInt();
+        List< Product > products = new ArrayList<>(noProducts);
+        for (int i = 0; i < noProducts; i++) {
+            products.add(readProduct(in));
+        }
+
+        int noBrokers = in.readInt();
+        List< Broker > brokers = new ArrayList<>(noBrokers);
+        Map< Integer, Broker > brokersById = new HashMap<>(2 * noBrokers);
+        for (int i = 0; i < noBrokers; i++) {
+            Broker broker = new Broker();
+            broker.setId(in.readInt());
+            broker.setEarnings(in.readDouble());
+            brokers.add(broker);
+            brokersById.put(broker.getId(), broker);
+        }
+
+        int noActiveAuctions = in.readInt();
+        List< Auction > activeAuctions = new ArrayList<>(noActiveAuctions);
+        List< Auction > interruptedAuctions = new ArrayList<>();
+        for (int i = 0; i < noActiveAuctions; i++) {
+            Auction auction = readAuction(in, clientsById, brokersById);
+            activeAuctions.add(auction);
+
+            // The auctions that were running have to be run again once the state is loaded.
+            if (in.readBoolean()) {
+                interruptedAuctions.add(auction);
+            }
+        }
+
+        int noFinishedAuctions = in.readInt();
+        List< Auction > finishedAuctions = new ArrayList<>(noFinishedAuctions);
+        for (int i = 0; i < noFinishedAuctions; i++) {
+            finishedAuctions.add(readAuction(in, clientsById, brokersById));
+
+            // A finished auction is never running.
+            in.readBoolean();
+        }
+
+        auctionHouse.restore(clients, products, brokers, activeAuctions, finishedAuctions, interruptedAuctions);
+    }
+
+    /**
+     * Encode a client.
+     *
+     * @param out         the output
+     * @param clientState the copy of the client
+     * @throws IOException if the client can't be encoded
+     */
+    private static void writeClient(DataOutputStream out, SnapshotView.ClientState clientState) throws IOException {
+        Client client = clientState.client;
+        out.writeInt(client.getId());
+        if (client instanceof LegalPerson legalPerson) {
+            out.writeByte(LEGAL_PERSON);
+            out.writeUTF(client.getName());
+            out.writeUTF(client.getAddress());
+            out.writeUTF(legalPerson.getCompany().name());
+            out.writeDouble(legalPerson.getShareCapital());
+        } else {
+            out.writeByte(NATURAL_PERSON);
+            out.writeUTF(client.getName());
+            out.writeUTF(client.getAddress());
+            out.writeUTF(((NaturalPerson) client).getBirthDate());
+        }
+        out.writeInt(clientState.noParticipations);
+        out.writeInt(clientState.noWonAuctions);
+    }
+
+    /**
+     * Decode a client.
+     *
+     * @param in the input
+     * @return the client
+     * @throws IOException if the client can't be decoded
+     */
+    private static Client readClient(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        byte type = in.readByte();
+        String name = in.readUTF();
+        String address = in.readUTF();
+
+        Client client;
+        if (type == LEGAL_PERSON) {
+            client = new LegalPerson(name, address, Company.valueOf(in.readUTF()), in.readDouble());
+        } else {
+            client = new NaturalPerson(name, address, in.readUTF());
+        }
+        client.setId(id);
+        client.setNoParticipations(in.readInt());
+        client.setNoWonAuctions(in.readInt());
+
+        return client;
+    }
+
+    /**
+     * Encode a product.
+     *
+     * @param out          the output
+     * @param productState the copy of the product
+     * @throws IOException if the product can't be encoded
+     */
+    private static void writeProduct(DataOutputStream out, SnapshotView.ProductState productState)
+            throws IOException {
+        Product product = productState.product;
+        out.writeInt(product.getId());
+        if (product instanceof Painting painting) {
+            out.writeByte(PAINTING);
+            out.writeUTF(painting.getPainterName());
+            out.writeUTF(painting.getColor().name());
+        } else if (product instanceof Furniture furniture) {
+            out.writeByte(FURNITURE);
+            out.writeUTF(furniture.getType());
+            out.writeUTF(furniture.getMaterial());
+        } else {
+            Jewelry jewelry = (Jewelry) product;
+            out.writeByte(JEWELRY);
+            out.writeUTF(jewelry.getMaterial());
+            out.writeUTF(Boolean.toString(jewelry.isGemstone()));
+        }
+        out.writeUTF(product.getName());
+        out.writeInt(product.getYear());
+        out.writeDouble(product.getMinPrice());
+        out.writeDouble(productState.sellingPrice);
+    }
+
+    /**
+     * Decode a product.
+     *
+     * @param in the input
+     * @return the product
+     * @throws IOException if the product can't be decoded or its type is unknown
+     */
+    private static Product readProduct(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        byte productType = in.readByte();
+
+        Product product = switch (productType) {
+            case PAINTING -> {
+                String painterName = in.readUTF();
+                Colors color = readColor(in.readUTF());
+                yield new Painting.Builder().setName(in.readUTF())
+                        .setYear(in.readInt())
+                        .setMinPrice(in.readDouble())
+                        .setColor(color)
+                        .setPainterName(painterName)
+                        .setId(id)
+                        .build();
+            }
+            case FURNITURE -> {
+                String type = in.readUTF();
+                String material = in.readUTF();
+                yield new Furniture.Builder().setName(in.readUTF())
+                        .setYear(in.readInt())
+                        .setMinPrice(in.readDouble())
+                        .setType(type)
+                        .setMaterial(material)
+                        .setId(id)
+                        .build();
+            }
+            case JEWELRY -> {
+                String material = in.readUTF();
+                boolean gemstone = Boolean.parseBoolean(in.readUTF());
+                yield new Jewelry.Builder().setName(in.readUTF())
+                        .setYear(in.readInt())
+                        .setMinPrice(in.readDouble())
+                        .setMaterial(material)
+                        .setGemstone(gemstone)
+                        .setId(id)
+                        .build();
+            }
+            default -> throw new IOException("Unknown type " + productType + " of the product with the ID " + id
+                    + ".");
+        };
+        product.setSellingPrice(in.readDouble());
+
+        return product;
+    }
+
+    /**
+     * Decode the color of a painting.
+     *
+     * @param name the color's name
+     * @return the color
+     * @throws IOException if the color is unknown
+     */
+    private static Colors readColor(String name) throws IOException {
+        try {
+            return Colors.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown color " + name + " of a painting.", e);
+        }
+    }
+
+    /**
+     * Encode an auction with the offers of its participants, in the order in which they have signed up, followed by
+     * whether it was running or not.
+     *
+     * @param out          the output
+     * @param auctionState the copy of the auction
+     * @throws IOException if the auction can't be encoded
+     */
+    private static void writeAuction(DataOutputStream out, SnapshotView.AuctionState auctionState)
+            throws IOException {
+        out.writeInt(auctionState.id);
+        out.writeInt(auctionState.noParticipants);
+        out.writeInt(auctionState.currentNoParticipants);
+        out.writeInt(auctionState.productId);
+        out.writeInt(auctionState.maxNoSteps);
+        out.writeByte(auctionState.mode.ordinal());
+        out.writeLong(auctionState.startSequence);
+
+        out.writeInt(auctionState.clientIds.length);
+        for (int signUpIndex = 0; signUpIndex < auctionState.clientIds.length; signUpIndex++) {
+            out.writeInt(auctionState.clientIds[signUpIndex]);
+            out.writeInt(auctionState.brokerIds[signUpIndex]);
+            out.writeDouble(auctionState.maxPrices[signUpIndex]);
+        }
+        out.writeBoolean(auctionState.inProgress);
+    }
+
+    /**
+     * Decode an auction and give its participants' offers to their brokers again. Whether it was running or not is
+     * decoded afterwards.
+     *
+     * @param in          the input
+     * @param clientsById the decoded clients, indexed by their id
+     * @param brokersById the decoded brokers, indexed by their id
+     * @return the auction
+     * @throws IOException if the auction can't be decoded
+     */
+    private static Auction readAuction(DataInputStream in, Map< Integer, Client > clientsById,
+                                       Map< Integer, Broker > brokersById) throws IOException {
+        Auction auction = new Auction(in.readInt(), in.readInt(), 0, 0);
+        auction.setCurrentNoParticipants(in.readInt());
+        auction.setProductId(in.readInt());
+        auction.setMaxNoSteps(in.readInt());
+        auction.setMode(AuctionMode.values()[in.readByte()]);
+        auction.setStartSequence(in.readLong());
+
+        int noOffers = in.readInt();
+        for (int i = 0; i < noOffers; i++) {
+            Client client = clientsById.get(in.readInt());
+            Broker broker = brokersById.get(in.readInt());
+            broker.addClient(client, auction, in.readDouble());
+        }
+
+        return auction;
+    }
+}
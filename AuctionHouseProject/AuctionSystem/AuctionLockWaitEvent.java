@@ -0,0 +1,69 @@
+package AuctionHouseProject.AuctionSystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * The type Auction lock wait event.
+ * <p>
+ * Class that describes the Flight Recorder event of a thread waiting for a monitor of the Auction House: the monitor of
+ * an auction, taken by the sign-ups and by the end of the auction, or the monitor that serializes the creation of the
+ * auctions. The catalogue of products doesn't take any lock, so it has no such event. Only the waits longer than the
+ * threshold, by default 1 ms, are recorded.
+ */
+@Name("AuctionHouse.LockWait")
+@Label("Auction Lock Wait")
+@Category({"Auction House"})
+@Description("A thread waiting for the monitor of an auction or for the monitor of the auctions' ids.")
+@Threshold("1 ms")
+final class AuctionLockWaitEvent extends jdk.jfr.Event {
+    /**
+     * The name of the monitor of an auction.
+     */
+    static final String AUCTION_MONITOR = "auction";
+    /**
+     * The name of the monitor that serializes the creation of the auctions.
+     */
+    static final String AUCTION_IDS_MONITOR = "auctionIds";
+
+    /**
+     * The auction's id.
+     */
+    @Label("Auction Id")
+    int auctionId;
+    /**
+     * The id of the auctioned product.
+     */
+    @Label("Product Id")
+    int productId;
+    /**
+     * The number of participants when the monitor was taken.
+     */
+    @Label("Participants")
+    int noParticipants;
+    /**
+     * The monitor that was waited for.
+     */
+    @Label("Monitor")
+    String monitor;
+
+    /**
+     * Commit the event, if it is enabled and long enough, once the monitor is taken.
+     *
+     * @param monitor the monitor that was waited for
+     * @param auction the auction
+     */
+    void commit(String monitor, Auction auction) {
+        end();
+        if (shouldCommit()) {
+            this.monitor = monitor;
+            auctionId = auction.getId();
+            productId = auction.getProductId();
+            noParticipants = auction.getCurrentNoParticipants();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package AuctionHouseProject.AuctionSystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The type Auction recording event.
+ * <p>
+ * Class that describes the Flight Recorder event of a whole auction, from the moment it is run until the participants
+ * have been notified of its ending. Like the other events of the Auction House, it is only built and committed while a
+ * recording that enables it is running, otherwise recording it costs next to nothing.
+ */
+@Name("AuctionHouse.Auction")
+@Label("Auction")
+@Category({"Auction House"})
+@Description("An auction, from the moment it is run until its participants are notified of its ending.")
+final class AuctionRecordingEvent extends jdk.jfr.Event {
+    /**
+     * The auction's id.
+     */
+    @Label("Auction Id")
+    int auctionId;
+    /**
+     * The id of the auctioned product.
+     */
+    @Label("Product Id")
+    int productId;
+    /**
+     * The number of participants.
+     */
+    @Label("Participants")
+    int noParticipants;
+    /**
+     * The number of steps run, 0 for the auctions resolved by proxy bidding or recovered from the journal.
+     */
+    @Label("Steps")
+    int noSteps;
+    /**
+     * The mode of the auction.
+     */
+    @Label("Mode")
+    String mode;
+    /**
+     * Whether the outcome was recovered from the journal or not.
+     */
+    @Label("Recovered")
+    boolean recovered;
+    /**
+     * Whether the product was sold or not.
+     */
+    @Label("Sold")
+    boolean sold;
+    /**
+     * The final price of the auction.
+     */
+    @Label("Price")
+    double price;
+
+    /**
+     * Commit the event, if it is enabled and long enough, with the details of the auction.
+     *
+     * @param auction the auction
+     * @param sold    whether the product was sold or not
+     * @param price   the final price of the auction
+     */
+    void commit(Auction auction, boolean sold, double price) {
+        end();
+        if (shouldCommit()) {
+            auctionId = auction.getId();
+            productId = auction.getProductId();
+            noParticipants = auction.getCurrentNoParticipants();
+            mode = auction.getMode().name();
+            this.sold = sold;
+            this.price = price;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package AuctionHouseProject.AuctionSystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The type Auction step event.
+ * <p>
+ * Class that describes the Flight Recorder event of a step of an auction: the brokers' notifications, the scan for the
+ * leading offer, the recording of the bids and the messages about them. The time of a step that isn't covered by its
+ * broker notification events is spent on the scan and on the messages.
+ */
+@Name("AuctionHouse.AuctionStep")
+@Label("Auction Step")
+@Category({"Auction House"})
+@Description("A step of an auction, or the proxy bidding of an auction in proxy mode.")
+final class AuctionStepEvent extends jdk.jfr.Event {
+    /**
+     * The auction's id.
+     */
+    @Label("Auction Id")
+    int auctionId;
+    /**
+     * The id of the auctioned product.
+     */
+    @Label("Product Id")
+    int productId;
+    /**
+     * The number of participants.
+     */
+    @Label("Participants")
+    int noParticipants;
+    /**
+     * The step, 0 for the proxy bidding.
+     */
+    @Label("Step")
+    int step;
+    /**
+     * The auction's price at the end of the step.
+     */
+    @Label("Price")
+    double price;
+
+    /**
+     * Commit the event, if it is enabled and long enough, with the details of the step.
+     *
+     * @param auction the auction
+     * @param step    the step, 0 for the proxy bidding
+     * @param price   the auction's price at the end of the step
+     */
+    void commit(Auction auction, int step, double price) {
+        end();
+        if (shouldCommit()) {
+            auctionId = auction.getId();
+            productId = auction.getProductId();
+            noParticipants = auction.getCurrentNoParticipants();
+            this.step = step;
+            this.price = price;
+            commit();
+        }
+    }
+}
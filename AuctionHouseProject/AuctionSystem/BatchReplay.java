@@ -0,0 +1,226 @@
+package AuctionHouseProject.AuctionSystem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * The type Batch replay.
+ * <p>
+ * Class that describes the behaviour of the batch mode of the Auction House: the commands/requests are read from a
+ * file and executed one after another, as if they were given on the standard input. The file is memory-mapped, split
+ * into commands and tokenized by a reader thread, while the commands are executed on the calling thread, so reading
+ * and executing the commands happen at the same time and the calling thread only executes them. The commands are
+ * passed in batches of tokenizers, which are given back to the reader thread once they are executed, so the same
+ * tokenizers are reused for the whole file. The control panel is closed when the replay ends, even if the file
+ * couldn't be read. At the end the number of commands executed per second is reported.
+ */
+public class BatchReplay {
+    /**
+     * The size of the regions of the file that are memory-mapped at once.
+     */
+    private static final long REGION_SIZE = 64L * 1024 * 1024;
+    /**
+     * The number of commands passed from the reader thread to the executing thread at once.
+     */
+    private static final int BATCH_SIZE = 1024;
+    /**
+     * The number of batches that may wait to be executed. Every batch keeps its tokenizers, so fewer batches are kept
+     * ready than when they were only split into lines.
+     */
+    private static final int MAX_PENDING_BATCHES = 16;
+    /**
+     * The number of batches of tokenizers: the ones that may wait to be executed, the one being filled by the reader
+     * thread and the one being executed.
+     */
+    private static final int NO_BATCHES = MAX_PENDING_BATCHES + 2;
+    /**
+     * The batch that marks the end of the file.
+     */
+    private static final Batch END_OF_FILE = new Batch(0);
+
+    /**
+     * The control panel that executes the commands.
+     */
+    private final AuctionHouseService controlPanel;
+    /**
+     * The file with the commands.
+     */
+    private final Path commandFile;
+    /**
+     * The batches of commands that were read, but haven't been executed yet. There is room for all the batches and the
+     * end of the file, so the reader thread never waits for room in it.
+     */
+    private final BlockingQueue< Batch > pendingBatches = new ArrayBlockingQueue<>(NO_BATCHES + 1);
+    /**
+     * The batches that were executed, which the reader thread fills again.
+     */
+    private final BlockingQueue< Batch > freeBatches = new ArrayBlockingQueue<>(NO_BATCHES);
+    /**
+     * The error that has stopped the reader thread, if any.
+     */
+    private volatile RuntimeException readError = null;
+
+    /**
+     * Instantiates a new Batch Replay.
+     *
+     * @param controlPanel the control panel that executes the commands
+     * @param commandFile  the file with the commands
+     */
+    public BatchReplay(AuctionHouseService controlPanel, Path commandFile) {
+        this.controlPanel = controlPanel;
+        this.commandFile = commandFile;
+
+        for (int i = 0; i < NO_BATCHES; i++) {
+            freeBatches.add(new Batch(BATCH_SIZE));
+        }
+    }
+
+    /**
+     * Execute all the commands from the file and report the number of commands executed per second.
+     *
+     * @return the number of executed commands
+     * @throws InterruptedException if the thread was interrupted while waiting for commands
+     */
+    public long replay() throws InterruptedException {
+        Thread reader = new Thread(this::readCommands, "auction-house-command-reader");
+        reader.setDaemon(true);
+
+        long startTime = System.nanoTime();
+        reader.start();
+
+        long noCommands = 0;
+        try {
+            for (Batch batch = pendingBatches.take(); batch != END_OF_FILE; batch = pendingBatches.take()) {
+                for (int i = 0; i < batch.size; i++) {
+                    controlPanel.controlPanel(batch.commands[i]);
+                }
+                noCommands += batch.size;
+                freeBatches.add(batch);
+            }
+
+            if (readError != null) {
+                throw readError;
+            }
+        } finally {
+            // The reader thread may still wait for a free batch if the commands stopped being executed.
+            reader.interrupt();
+            // The replay ends when the auctions started by the commands have ended as well.
+            controlPanel.close();
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+
+        System.err.printf("%d commands replayed from %s in %.3f s (%.0f commands/s).%n", noCommands, commandFile,
+                elapsedTime / 1e9, noCommands / (elapsedTime / 1e9));
+
+        return noCommands;
+    }
+
+    /**
+     * The reader thread's loop: map the file region by region, split it into commands, tokenize them and pass them in
+     * batches to the executing thread. The end of the file is always passed on, even if the reading fails or is
+     * interrupted, so the executing thread never waits for it forever.
+     */
+    private void readCommands() {
+        byte[] command = new byte[256];
+        int commandLength = 0;
+
+        try (FileChannel channel = FileChannel.open(commandFile, StandardOpenOption.READ)) {
+            Batch batch = freeBatches.take();
+            batch.size = 0;
+
+            long fileSize = channel.size();
+
+            for (long position = 0; position < fileSize; position += REGION_SIZE) {
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(REGION_SIZE, fileSize - position));
+
+                while (region.hasRemaining()) {
+                    byte character = region.get();
+
+                    if (character != '\n') {
+                        if (commandLength == command.length) {
+                            command = Arrays.copyOf(command, commandLength * 2);
+                        }
+                        command[commandLength++] = character;
+                        continue;
+                    }
+
+                    // A command spans until the end of the line, even if it began in the previous region.
+                    batch.add(new String(command, 0, commandLength, StandardCharsets.UTF_8));
+                    commandLength = 0;
+
+                    if (batch.size == BATCH_SIZE) {
+                        pendingBatches.add(batch);
+                        batch = freeBatches.take();
+                        batch.size = 0;
+                    }
+                }
+            }
+
+            // The last line may not end with a line terminator.
+            if (commandLength > 0) {
+                batch.add(new String(command, 0, commandLength, StandardCharsets.UTF_8));
+            }
+            if (batch.size > 0) {
+                pendingBatches.add(batch);
+            }
+        } catch (IOException e) {
+            readError = new UncheckedIOException("The commands couldn't be read from " + commandFile + ".", e);
+        } catch (InterruptedException e) {
+            readError = new IllegalStateException("The reading of the commands from " + commandFile
+                    + " was interrupted.");
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            readError = e;
+        } finally {
+            // There is always room for the end of the file, so it is passed on without waiting.
+            pendingBatches.offer(END_OF_FILE);
+        }
+    }
+
+    /**
+     * The type Batch.
+     * <p>
+     * Class that describes a batch of tokenized commands. Its tokenizers are reused every time the batch is filled
+     * again, so only the first commands passed through them allocate their arrays of tokens.
+     */
+    private static final class Batch {
+        /**
+         * The tokenized commands.
+         */
+        private final CommandTokenizer[] commands;
+        /**
+         * The number of commands in the batch.
+         */
+        private int size = 0;
+
+        /**
+         * Instantiates a new Batch.
+         *
+         * @param capacity the maximum number of commands
+         */
+        private Batch(int capacity) {
+            commands = new CommandTokenizer[capacity];
+            for (int i = 0; i < capacity; i++) {
+                commands[i] = new CommandTokenizer();
+            }
+        }
+
+        /**
+         * Tokenize a command and add it to the batch.
+         *
+         * @param command the command
+         */
+        private void add(String command) {
+            commands[size++].tokenize(command);
+        }
+    }
+}
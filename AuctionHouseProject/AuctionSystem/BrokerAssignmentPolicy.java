@@ -0,0 +1,56 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.People.Broker;
+import AuctionHouseProject.People.Client;
+
+import java.util.List;
+
+/**
+ * The interface Broker assignment policy.
+ * <p>
+ * Describes the behaviour of the policy that chooses the broker who represents a client that signs up for an auction.
+ * The least-loaded policy, the default one, gives the client to the broker with the fewest clients in the auctions that
+ * haven't started yet, so the work of the brokers stays balanced however many brokers there are. The consistent-hash
+ * policy always gives a client to the same broker, and adding a broker only moves a small share of the clients to it.
+ */
+public interface BrokerAssignmentPolicy {
+    /**
+     * The system property used for choosing the policy: leastLoaded or consistentHash.
+     */
+    String POLICY_PROPERTY = "auctionhouse.brokers.assignment";
+
+    /**
+     * Instantiates the policy chosen by the system property, by default the least-loaded one.
+     *
+     * @return the policy
+     */
+    static BrokerAssignmentPolicy fromSystemProperties() {
+        String policy = System.getProperty(POLICY_PROPERTY, "leastLoaded");
+        return switch (policy) {
+            case "leastLoaded" -> new LeastLoadedBrokerAssignment();
+            case "consistentHash" -> new ConsistentHashBrokerAssignment();
+            default -> throw new IllegalArgumentException("There is no broker assignment policy called " + policy +
+                    ".");
+        };
+    }
+
+    /**
+     * Choose the broker who represents a client in an auction. It is called while holding the auction's monitor.
+     *
+     * @param brokers the brokers of the Auction House, at least one
+     * @param auction the auction that the client signs up for
+     * @param client  the client
+     * @return the broker
+     * @throws IllegalStateException if the Auction House has no brokers
+     */
+    Broker assignBroker(List< Broker > brokers, Auction auction, Client client);
+
+    /**
+     * Be told that the number of active sign-ups of a broker has changed: a client was given to him or an auction in
+     * which he represents clients has started. It is called on the thread that executes the commands.
+     *
+     * @param broker the broker
+     */
+    default void onLoadChanged(Broker broker) {
+    }
+}
@@ -0,0 +1,77 @@
+package AuctionHouseProject.AuctionSystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The type Broker notification event.
+ * <p>
+ * Class that describes the Flight Recorder event of a round of notifications sent by a broker to the clients that he
+ * represents in an auction: either the new price at a step, to which the clients answer with their new offers, or the
+ * auction's ending.
+ */
+@Name("AuctionHouse.BrokerNotification")
+@Label("Broker Notification")
+@Category({"Auction House"})
+@Description("A broker notifying the clients that he represents in an auction of a new price or of its ending.")
+final class BrokerNotificationEvent extends jdk.jfr.Event {
+    /**
+     * The auction's id.
+     */
+    @Label("Auction Id")
+    int auctionId;
+    /**
+     * The id of the auctioned product.
+     */
+    @Label("Product Id")
+    int productId;
+    /**
+     * The number of participants.
+     */
+    @Label("Participants")
+    int noParticipants;
+    /**
+     * The step, 0 for the notifications of the auction's ending.
+     */
+    @Label("Step")
+    int step;
+    /**
+     * The broker's id.
+     */
+    @Label("Broker Id")
+    int brokerId;
+    /**
+     * The number of clients asked for a new offer.
+     */
+    @Label("Offer Requests")
+    int noOfferRequests;
+    /**
+     * Whether the clients were notified of the auction's ending or not.
+     */
+    @Label("Auction Ending")
+    boolean auctionEnding;
+
+    /**
+     * Commit the event, if it is enabled and long enough, with the details of the round of notifications.
+     *
+     * @param auction         the auction
+     * @param step            the step, 0 for the notifications of the auction's ending
+     * @param brokerId        the broker's id
+     * @param noOfferRequests the number of clients asked for a new offer
+     */
+    void commit(Auction auction, int step, int brokerId, int noOfferRequests) {
+        end();
+        if (shouldCommit()) {
+            auctionId = auction.getId();
+            productId = auction.getProductId();
+            noParticipants = auction.getCurrentNoParticipants();
+            this.step = step;
+            this.brokerId = brokerId;
+            this.noOfferRequests = noOfferRequests;
+            auctionEnding = step == 0;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.Enums.CommandType;
+
+import java.util.Arrays;
+
+/**
+ * The type Command tokenizer.
+ * <p>
+ * Class that describes the behaviour of the tokenizer of the commands/requests sent to the Auction House. The tokens
+ * are separated by spaces, except for the spaces between quotes, and the quotes aren't part of the tokens. The
+ * tokenizer doesn't copy the tokens, it only keeps where each of them starts and ends in the command, so the numbers
+ * are parsed straight from the command and a token is only copied when it is needed as a String. The same tokenizer
+ * is reused for all the commands, so it must not be shared between threads.
+ */
+public class CommandTokenizer {
+    /**
+     * The number of tokens for which there is room initially.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * The number of decimal digits that can always be represented exactly by a double.
+     */
+    private static final int MAX_EXACT_DIGITS = 15;
+    /**
+     * The powers of 10 that can be represented exactly by a double.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18,
+            1e19, 1e20, 1e21, 1e22
+    };
+    /**
+     * The known types of commands. CommandType.values() returns a new copy every time, so it is called only once.
+     */
+    private static final CommandType[] COMMAND_TYPES = CommandType.values();
+
+    /**
+     * The command that was tokenized last.
+     */
+    private CharSequence command = "";
+    /**
+     * Where each token starts in the command.
+     */
+    private int[] tokenStarts = new int[INITIAL_CAPACITY];
+    /**
+     * Where each token ends in the command.
+     */
+    private int[] tokenEnds = new int[INITIAL_CAPACITY];
+    /**
+     * Whether each token has quotes inside it, which have to be removed when the token is copied.
+     */
+    private boolean[] tokenQuoted = new boolean[INITIAL_CAPACITY];
+    /**
+     * The number of tokens of the command.
+     */
+    private int noTokens = 0;
+    /**
+     * The type of the command, null if it isn't a known command.
+     */
+    private CommandType commandType = null;
+
+    /**
+     * Tokenize a command.
+     *
+     * @param command the command
+     * @return the tokenizer, for reading the command's tokens
+     */
+    public CommandTokenizer tokenize(CharSequence command) {
+        this.command = command;
+        this.noTokens = 0;
+
+        // The line terminators at the end of the command aren't part of it.
+        int length = command.length();
+        while (length > 0 && (command.charAt(length - 1) == '\n' || command.charAt(length - 1) == '\r')) {
+            length--;
+        }
+
+        /* A space separates two tokens only if it is followed by an even number of quotes, so the quotes are counted
+           first. For the commands where all the quotes are paired this means that the spaces between quotes don't
+           separate tokens.
+        */
+        int noQuotesLeft = 0;
+        for (int i = 0; i < length; i++) {
+            if (command.charAt(i) == '"') {
+                noQuotesLeft++;
+            }
+        }
+
+        int tokenStart = 0;
+        int noQuotes = 0;
+
+        for (int i = 0; i < length; i++) {
+            char character = command.charAt(i);
+
+            if (character == '"') {
+                noQuotesLeft--;
+                noQuotes++;
+            } else if (character == ' ' && noQuotesLeft % 2 == 0) {
+                addToken(tokenStart, i, noQuotes);
+                tokenStart = i + 1;
+                noQuotes = 0;
+            }
+        }
+        addToken(tokenStart, length, noQuotes);
+        commandType = findCommandType();
+
+        return this;
+    }
+
+    /**
+     * Gets the command that was tokenized last.
+     *
+     * @return the command
+     */
+    public CharSequence getCommand() {
+        return command;
+    }
+
+    /**
+     * Gets the number of tokens of the command.
+     *
+     * @return the number of tokens
+     */
+    public int getNoTokens() {
+        return noTokens;
+    }
+
+    /**
+     * Gets the type of the command, given by its first token. It is found once, when the command is tokenized.
+     *
+     * @return the type of the command or null if it isn't a known command
+     */
+    public CommandType getCommandType() {
+        return commandType;
+    }
+
+    /**
+     * Whether a token is equal to a text or not.
+     *
+     * @param index the token's index
+     * @param text  the text
+     * @return true if the token is equal to the text, else false
+     */
+    public boolean tokenEquals(int index, String text) {
+        checkIndex(index);
+
+        if (tokenQuoted[index]) {
+            return getToken(index).equals(text);
+        }
+
+        int start = tokenStarts[index];
+        int length = tokenEnds[index] - start;
+        if (length != text.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (command.charAt(start + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets a copy of a token.
+     *
+     * @param index the token's index
+     * @return the token
+     */
+    public String getToken(int index) {
+        checkIndex(index);
+
+        int start = tokenStarts[index];
+        int end = tokenEnds[index];
+
+        if (!tokenQuoted[index]) {
+            return command.subSequence(start, end).toString();
+        }
+
+        StringBuilder token = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char character = command.charAt(i);
+            if (character != '"') {
+                token.append(character);
+            }
+        }
+
+        return token.toString();
+    }
+
+    /**
+     * Parse a token as an int, without copying it.
+     *
+     * @param index the token's index
+     * @return the int
+     * @throws NumberFormatException if the token isn't an int
+     */
+    public int parseInt(int index) {
+        checkIndex(index);
+
+        if (tokenQuoted[index]) {
+            return Integer.parseInt(getToken(index));
+        }
+
+        return Integer.parseInt(command, tokenStarts[index], tokenEnds[index], 10);
+    }
+
+    /**
+     * Parse a token as a double.
+     * <p>
+     * The plain decimal numbers with at most 15 digits, which are the ones used in the commands, are parsed straight
+     * from the command and the result is exact, because both the digits and the power of 10 are represented exactly
+     * by doubles. The other numbers are copied and parsed by Double.parseDouble.
+     *
+     * @param index the token's index
+     * @return the double
+     * @throws NumberFormatException if the token isn't a double
+     */
+    public double parseDouble(int index) {
+        checkIndex(index);
+
+        int start = tokenStarts[index];
+        int end = tokenEnds[index];
+        int i = start;
+        boolean negative = false;
+
+        if (!tokenQuoted[index] && i < end && (command.charAt(i) == '-' || command.charAt(i) == '+')) {
+            negative = command.charAt(i) == '-';
+            i++;
+        }
+
+        long digits = 0;
+        int noDigits = 0;
+        int noFractionDigits = 0;
+        boolean fraction = false;
+        boolean plainNumber = !tokenQuoted[index] && i < end;
+
+        for (; i < end && plainNumber; i++) {
+            char character = command.charAt(i);
+
+            if (character >= '0' && character <= '9') {
+                digits = digits * 10 + (character - '0');
+                noDigits++;
+                if (fraction) {
+                    noFractionDigits++;
+                }
+            } else if (character == '.' && !fraction) {
+                fraction = true;
+            } else {
+                plainNumber = false;
+            }
+        }
+
+        if (!plainNumber || noDigits == 0 || noDigits > MAX_EXACT_DIGITS) {
+            return Double.parseDouble(getToken(index));
+        }
+
+        double value = digits / POWERS_OF_TEN[noFractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Add a token, without the quotes around it.
+     *
+     * @param start    where the token starts
+     * @param end      where the token ends
+     * @param noQuotes the number of quotes in the token
+     */
+    private void addToken(int start, int end, int noQuotes) {
+        if (noTokens == tokenStarts.length) {
+            tokenStarts = Arrays.copyOf(tokenStarts, noTokens * 2);
+            tokenEnds = Arrays.copyOf(tokenEnds, noTokens * 2);
+            tokenQuoted = Arrays.copyOf(tokenQuoted, noTokens * 2);
+        }
+
+        // A token that is only quoted at its ends is kept as the slice between the quotes.
+        boolean quotedAtEnds = noQuotes == 2 && end - start >= 2 && command.charAt(start) == '"' &&
+                command.charAt(end - 1) == '"';
+        if (quotedAtEnds) {
+            start++;
+            end--;
+        }
+
+        tokenStarts[noTokens] = start;
+        tokenEnds[noTokens] = end;
+        tokenQuoted[noTokens] = noQuotes != 0 && !quotedAtEnds;
+        noTokens++;
+    }
+
+    /**
+     * Find the type of the command, given by its first token.
+     *
+     * @return the type of the command or null if it isn't a known command
+     */
+    private CommandType findCommandType() {
+        for (CommandType type : COMMAND_TYPES) {
+            if (tokenEquals(0, type.name())) {
+                return type;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Check that a token exists.
+     *
+     * @param index the token's index
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= noTokens) {
+            throw new ArrayIndexOutOfBoundsException("The command has no token with the index " + index + ".");
+        }
+    }
+}
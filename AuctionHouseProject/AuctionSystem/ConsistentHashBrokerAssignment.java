@@ -0,0 +1,145 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.People.Broker;
+import AuctionHouseProject.People.Client;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The type Consistent hash broker assignment.
+ * <p>
+ * Class that describes the behaviour of the policy that gives a client to a broker chosen by the client's id, so the
+ * client has the same broker in all his auctions. The brokers are placed on a ring of hashes, each of them in several
+ * points so they get similar shares of the ring, and a client belongs to the first point after his own hash. When a
+ * broker is added only the clients that fall just before his points move to him.
+ */
+public class ConsistentHashBrokerAssignment implements BrokerAssignmentPolicy {
+    /**
+     * The number of points of each broker on the ring.
+     */
+    private static final int NO_POINTS_PER_BROKER = 64;
+
+    /**
+     * The ring of the brokers, rebuilt when a broker is added.
+     */
+    private volatile Ring ring = null;
+
+    /**
+     * Choose the broker that owns the client's hash on the ring.
+     *
+     * @param brokers the brokers of the Auction House, at least one
+     * @param auction the auction that the client signs up for
+     * @param client  the client
+     * @return the broker
+     * @throws IllegalStateException if the Auction House has no brokers
+     */
+    @Override
+    public Broker assignBroker(List< Broker > brokers, Auction auction, Client client) {
+        if (brokers.isEmpty()) {
+            throw new IllegalStateException("There is no broker who could represent the client with the ID " +
+                    client.getId() + " in the auction with the ID " + auction.getId() + ".");
+        }
+
+        Ring ring = this.ring;
+        if (ring == null || !ring.isBuiltFrom(brokers)) {
+            ring = new Ring(brokers);
+            this.ring = ring;
+        }
+
+        return ring.getOwner(hash(client.getId()));
+    }
+
+    /**
+     * Mix the bits of a number, so close numbers get far apart hashes.
+     *
+     * @param value the number
+     * @return the hash
+     */
+    private static int hash(int value) {
+        value ^= value >>> 16;
+        value *= 0x85ebca6b;
+        value ^= value >>> 13;
+        value *= 0xc2b2ae35;
+        value ^= value >>> 16;
+        return value;
+    }
+
+    /**
+     * The type Ring.
+     * <p>
+     * Class that describes the points of the brokers on the ring, sorted by their hash.
+     */
+    private static final class Ring {
+        /**
+         * The hashes of the points, sorted.
+         */
+        private final int[] hashes;
+        /**
+         * The brokers that own the points, in the order of the hashes.
+         */
+        private final Broker[] owners;
+        /**
+         * The number of brokers placed on the ring.
+         */
+        private final int noBrokers;
+        /**
+         * The last broker placed on the ring.
+         */
+        private final Broker lastBroker;
+
+        /**
+         * Instantiates a new Ring.
+         *
+         * @param brokers the brokers, at least one
+         */
+        private Ring(List< Broker > brokers) {
+            noBrokers = brokers.size();
+            lastBroker = brokers.get(noBrokers - 1);
+
+            // Each point is encoded with its hash in the high bits and its broker's position in the low bits.
+            long[] points = new long[noBrokers * NO_POINTS_PER_BROKER];
+            for (int position = 0; position < noBrokers; position++) {
+                int brokerId = brokers.get(position).getId();
+                for (int point = 0; point < NO_POINTS_PER_BROKER; point++) {
+                    int pointHash = hash(brokerId * NO_POINTS_PER_BROKER + point);
+                    points[position * NO_POINTS_PER_BROKER + point] = ((long) pointHash << 32) | position;
+                }
+            }
+            Arrays.sort(points);
+
+            hashes = new int[points.length];
+            owners = new Broker[points.length];
+            for (int i = 0; i < points.length; i++) {
+                hashes[i] = (int) (points[i] >> 32);
+                owners[i] = brokers.get((int) points[i]);
+            }
+        }
+
+        /**
+         * Whether the ring was built from the current brokers or not. The brokers are only ever added at the end of
+         * the list.
+         *
+         * @param brokers the current brokers
+         * @return true if the ring was built from the current brokers, else false
+         */
+        private boolean isBuiltFrom(List< Broker > brokers) {
+            return brokers.size() == noBrokers && brokers.get(noBrokers - 1) == lastBroker;
+        }
+
+        /**
+         * Gets the broker that owns a hash: the owner of the first point at or after it, going around the ring.
+         *
+         * @param hash the hash
+         * @return the broker
+         */
+        private Broker getOwner(int hash) {
+            int index = Arrays.binarySearch(hashes, hash);
+            if (index < 0) {
+                index = -index - 1;
+            }
+
+            return owners[index == hashes.length ? 0 : index];
+        }
+    }
+}
@@ -0,0 +1,654 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.Enums.AuctionMode;
+import AuctionHouseProject.Enums.CommandType;
+import AuctionHouseProject.PrintingFeature.EventPrinter;
+import AuctionHouseProject.PrintingFeature.EventSink;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The type Golden test runner.
+ * <p>
+ * Class that describes the behaviour of the runner of the regression tests from the "teste" directory. Each
+ * testN.txt is executed by a new Auction House, its output is compared line by line with the expected output from
+ * testN_output.txt and the wall time and the memory allocated by the test are measured. The results are written to a
+ * JSON report. The codes of the colors and the lines that depend on the random offers of the clients can be ignored
+ * by the comparison. The outcomes of the auctions are still compared: fully for the proxy auctions, whose prices
+ * don't depend on the random offers, and only as the ending of the product's auction for the stepped ones. With the
+ * default settings, where the auctions are run in parallel with the commands, the order of
+ * the lines isn't fixed, so the lines are compared regardless of their order.
+ */
+public class GoldenTestRunner {
+    /**
+     * The pattern of the names of the tests' inputs.
+     */
+    private static final Pattern TEST_NAME = Pattern.compile("test(\\d+)\\.txt");
+    /**
+     * The pattern of the codes of the colors.
+     */
+    private static final Pattern ANSI_CODE = Pattern.compile("\u001B\\[[0-9;]*m");
+    /**
+     * The pattern of the lines whose content depends on the random offers of the clients. The prices after the proxy
+     * bidding only depend on the maximum prices of the clients and on the minimum selling price, so they are kept.
+     */
+    private static final Pattern RANDOM_LINE = Pattern.compile("offered|starting price|end of step");
+    /**
+     * The pattern of the lines with the outcome of an auction, which give the name of its product in the first group
+     * if it was sold or in the second one if it wasn't.
+     */
+    private static final Pattern OUTCOME_LINE = Pattern.compile("The product (.+) has been sold for .+\\.|" +
+            "The auction has ended without selling the product (.+)\\.");
+
+    /**
+     * The directory with the tests.
+     */
+    private final Path testDirectory;
+    /**
+     * Whether the codes of the colors are ignored by the comparison or not.
+     */
+    private boolean ignoreAnsi = true;
+    /**
+     * Whether the lines that depend on the random offers are ignored by the comparison or not.
+     */
+    private boolean ignoreRandomLines = true;
+    /**
+     * Whether the order of the lines is ignored by the comparison or not.
+     */
+    private boolean ignoreOrder = false;
+
+    /**
+     * Instantiates a new Golden Test Runner.
+     *
+     * @param testDirectory the directory with the tests
+     */
+    public GoldenTestRunner(Path testDirectory) {
+        this.testDirectory = testDirectory;
+    }
+
+    /**
+     * The entry point of the runner.
+     * <p>
+     * The arguments are the directory with the tests (by default "teste"), the file where the report is written (by
+     * default "golden-report.json") and, optionally, --keepAnsi, --keepRandomLines and --defaultSettings. Unless the
+     * system properties say otherwise, the auctions and the background operations are run on the thread that executes
+     * the commands, so the order of the messages is the same from one run to another, and no latency is simulated.
+     * With --defaultSettings the tests are run with the settings of the Auction House, the auctions and the background
+     * operations being run in parallel with the commands, and the order of the lines is ignored. The exit code is 1 if
+     * any test has failed.
+     *
+     * @param args the input arguments
+     * @throws IOException          if a test can't be read or the report can't be written
+     * @throws InterruptedException if the thread was interrupted while waiting for a test to end
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List< String > paths = new ArrayList<>();
+        boolean ignoreAnsi = true;
+        boolean ignoreRandomLines = true;
+        boolean defaultSettings = false;
+
+        for (String arg : args) {
+            switch (arg) {
+                case "--keepAnsi" -> ignoreAnsi = false;
+                case "--keepRandomLines" -> ignoreRandomLines = false;
+                case "--defaultSettings" -> defaultSettings = true;
+                default -> paths.add(arg);
+            }
+        }
+
+        if (!defaultSettings) {
+            if (System.getProperty(AuctionEngine.THREADS_PROPERTY) == null) {
+                System.setProperty(AuctionEngine.THREADS_PROPERTY, "0");
+            }
+            if (System.getProperty(TaskExecutor.ASYNC_PROPERTY) == null) {
+                System.setProperty(TaskExecutor.ASYNC_PROPERTY, "false");
+            }
+            if (System.getProperty(LatencyPolicy.MAX_MILLIS_PROPERTY) == null) {
+                System.setProperty(LatencyPolicy.MAX_MILLIS_PROPERTY, "0");
+            }
+        }
+
+        GoldenTestRunner runner = new GoldenTestRunner(Path.of(paths.size() > 0 ? paths.get(0) : "teste"));
+        runner.setIgnoreAnsi(ignoreAnsi);
+        runner.setIgnoreRandomLines(ignoreRandomLines);
+        runner.setIgnoreOrder(defaultSettings);
+        Path reportFile = Path.of(paths.size() > 1 ? paths.get(1) : "golden-report.json");
+
+        List< TestResult > results = runner.runAll();
+        Files.writeString(reportFile, toJson(results), StandardCharsets.UTF_8);
+
+        int noFailedTests = 0;
+        for (TestResult result : results) {
+            System.err.printf(Locale.ROOT, "%-8s %-6s %10.3f s %,15d bytes%s%n", result.name,
+                    result.passed ? "PASSED" : "FAILED", result.wallTimeNanos / 1e9, result.allocatedBytes,
+                    result.passed ? "" : " (first difference at line " + result.firstDifferentLine + ")");
+            if (!result.passed) {
+                noFailedTests++;
+            }
+        }
+        System.err.println(results.size() - noFailedTests + "/" + results.size() + " tests passed, report written " +
+                "to " + reportFile + ".");
+
+        System.exit(noFailedTests == 0 ? 0 : 1);
+    }
+
+    /**
+     * Run all the tests from the directory, in the order of their numbers.
+     *
+     * @return the results of the tests
+     * @throws IOException          if a test can't be read
+     * @throws InterruptedException if the thread was interrupted while waiting for a test to end
+     */
+    public List< TestResult > runAll() throws IOException, InterruptedException {
+        List< Path > inputs = new ArrayList<>();
+        try (DirectoryStream< Path > files = Files.newDirectoryStream(testDirectory, "test*.txt")) {
+            for (Path file : files) {
+                if (TEST_NAME.matcher(file.getFileName().toString()).matches()) {
+                    inputs.add(file);
+                }
+            }
+        }
+        inputs.sort(Comparator.comparingInt(GoldenTestRunner::getTestNumber));
+
+        List< TestResult > results = new ArrayList<>();
+        for (Path input : inputs) {
+            Path expectedOutput = findExpectedOutput(input);
+            if (expectedOutput != null) {
+                results.add(run(input, expectedOutput));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Run a test: execute its commands with a new Auction House and compare the output with the expected one.
+     *
+     * @param input          the file with the commands
+     * @param expectedOutput the file with the expected output
+     * @return the result of the test
+     * @throws IOException          if the test can't be read
+     * @throws InterruptedException if the thread was interrupted while waiting for the test to end
+     */
+    public TestResult run(Path input, Path expectedOutput) throws IOException, InterruptedException {
+        List< String > commands = Files.readAllLines(input, StandardCharsets.UTF_8);
+        List< String > expectedLines = Files.readAllLines(expectedOutput, StandardCharsets.UTF_8);
+
+        EventPrinter printer = EventPrinter.getInstance();
+        EventSink previousSink = printer.getSink();
+        CapturingEventSink capturingSink = new CapturingEventSink();
+        printer.setSink(capturingSink);
+
+        Map< Long, Long > allocatedBytesByThread = getAllocatedBytesByThread();
+        long startTime = System.nanoTime();
+        try {
+            AuctionHouse.resetInstance();
+            AuctionHouseService controlPanel = new AuctionHouseService();
+            for (String command : commands) {
+                /* The id of a new product follows the one of the last product available for auction, so it depends on
+                   whether the running auctions have already sold their products. When the auctions run in parallel the
+                   product is only added after they have ended, so it gets the id expected by the test.
+                */
+                if (ignoreOrder && command.startsWith("addProduct")) {
+                    AuctionHouse.getInstance().getAuctionEngine().awaitRunningAuctions();
+                }
+                controlPanel.controlPanel(command);
+            }
+
+            // The test ends when the auctions and the background operations it has started have ended as well.
+            AuctionHouse.getInstance().getAuctionEngine().awaitRunningAuctions();
+            TaskExecutor.getInstance().awaitPendingTasks();
+            printer.flush();
+        } finally {
+            printer.setSink(previousSink);
+        }
+        long wallTimeNanos = System.nanoTime() - startTime;
+        long allocatedBytes = getAllocatedBytesSince(allocatedBytesByThread);
+
+        String name = input.getFileName().toString().replace(".txt", "");
+        Set< String > proxyProducts = findProxyProducts(commands, AuctionHouse.getInstance().getDefaultAuctionMode());
+        return compare(name, wallTimeNanos, allocatedBytes, normalize(expectedLines, proxyProducts),
+                normalize(capturingSink.getLines(), proxyProducts));
+    }
+
+    /**
+     * Find the products of a test that are sold in proxy auctions.
+     *
+     * @param commands           the test's commands
+     * @param defaultAuctionMode the mode of the auctions whose products don't specify one
+     * @return the names of the products
+     */
+    private static Set< String > findProxyProducts(List< String > commands, AuctionMode defaultAuctionMode) {
+        Set< String > proxyProducts = new HashSet<>();
+        CommandTokenizer tokenizer = new CommandTokenizer();
+
+        for (String command : commands) {
+            CommandTokenizer commandInfo = tokenizer.tokenize(command);
+            if (commandInfo.getCommandType() != CommandType.addProduct || commandInfo.getNoTokens() < 3) {
+                continue;
+            }
+
+            String auctionMode = commandInfo.getNoTokens() > 9 ? commandInfo.getToken(9) : defaultAuctionMode.name();
+            if (AuctionMode.proxy.name().equals(auctionMode)) {
+                proxyProducts.add(commandInfo.getToken(2));
+            }
+        }
+
+        return proxyProducts;
+    }
+
+    /**
+     * Compare the output of a test with the expected one.
+     *
+     * @param name           the test's name
+     * @param wallTimeNanos  the wall time of the test, in nanoseconds
+     * @param allocatedBytes the memory allocated by the test, in bytes
+     * @param expectedLines  the expected lines
+     * @param actualLines    the lines printed by the test
+     * @return the result of the test
+     */
+    private TestResult compare(String name, long wallTimeNanos, long allocatedBytes, List< String > expectedLines,
+                               List< String > actualLines) {
+        if (ignoreOrder) {
+            expectedLines.sort(null);
+            actualLines.sort(null);
+        }
+
+        int noLines = Math.max(expectedLines.size(), actualLines.size());
+
+        for (int i = 0; i < noLines; i++) {
+            String expected = i < expectedLines.size() ? expectedLines.get(i) : null;
+            String actual = i < actualLines.size() ? actualLines.get(i) : null;
+
+            if (expected == null || !expected.equals(actual)) {
+                return new TestResult(name, false, wallTimeNanos, allocatedBytes, expectedLines.size(),
+                        actualLines.size(), i + 1, expected, actual);
+            }
+        }
+
+        return new TestResult(name, true, wallTimeNanos, allocatedBytes, expectedLines.size(), actualLines.size(),
+                0, null, null);
+    }
+
+    /**
+     * Prepare the lines for the comparison: remove the codes of the colors and the lines that depend on the random
+     * offers, if they are ignored, and the trailing line terminators.
+     * <p>
+     * Whether a stepped auction sells its product, and for how much, depends on the random offers, so when they are
+     * ignored its outcome is replaced by the ending of the product's auction. The number of auctions that have ended
+     * and their products are still compared, while the outcomes of the proxy auctions are compared as they are.
+     *
+     * @param lines         the lines
+     * @param proxyProducts the names of the products sold in proxy auctions
+     * @return the prepared lines
+     */
+    private List< String > normalize(List< String > lines, Set< String > proxyProducts) {
+        List< String > normalizedLines = new ArrayList<>(lines.size());
+
+        for (String line : lines) {
+            line = line.stripTrailing();
+            if (ignoreAnsi) {
+                line = ANSI_CODE.matcher(line).replaceAll("");
+            }
+            if (ignoreRandomLines) {
+                if (RANDOM_LINE.matcher(line).find()) {
+                    continue;
+                }
+
+                Matcher outcome = OUTCOME_LINE.matcher(ANSI_CODE.matcher(line).replaceAll(""));
+                if (outcome.matches()) {
+                    String productName = outcome.group(1) != null ? outcome.group(1) : outcome.group(2);
+                    if (!proxyProducts.contains(productName)) {
+                        line = "The auction for the product " + productName + " has ended.";
+                    }
+                }
+            }
+            normalizedLines.add(line);
+        }
+
+        return normalizedLines;
+    }
+
+    /**
+     * Find the file with the expected output of a test, named testN_output.txt (or with another suffix after the
+     * underscore).
+     *
+     * @param input the file with the commands
+     * @return the file with the expected output, null if there isn't one
+     * @throws IOException if the directory can't be read
+     */
+    private Path findExpectedOutput(Path input) throws IOException {
+        String prefix = "test" + getTestNumber(input) + "_";
+
+        try (DirectoryStream< Path > files = Files.newDirectoryStream(testDirectory, prefix + "*.txt")) {
+            for (Path file : files) {
+                return file;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the number of a test.
+     *
+     * @param input the file with the commands
+     * @return the test's number
+     */
+    private static int getTestNumber(Path input) {
+        Matcher matcher = TEST_NAME.matcher(input.getFileName().toString());
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    /**
+     * Gets the number of bytes allocated so far by each live thread.
+     *
+     * @return the number of bytes by thread id, null if the JVM doesn't measure the allocated memory
+     */
+    private static Map< Long, Long > getAllocatedBytesByThread() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean) ||
+                !threadMXBean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+
+        long[] threadIds = threadMXBean.getAllThreadIds();
+        long[] threadAllocatedBytes = threadMXBean.getThreadAllocatedBytes(threadIds);
+        Map< Long, Long > allocatedBytesByThread = new HashMap<>(threadIds.length * 2);
+        for (int i = 0; i < threadIds.length; i++) {
+            // A thread that has ended in the meantime is reported with -1.
+            if (threadAllocatedBytes[i] >= 0) {
+                allocatedBytesByThread.put(threadIds[i], threadAllocatedBytes[i]);
+            }
+        }
+
+        return allocatedBytesByThread;
+    }
+
+    /**
+     * Gets the number of bytes allocated by the live threads since their totals were taken. Each thread is measured
+     * against its own earlier total, or from 0 if it has started since then, so the threads that have ended in the
+     * meantime, like the ones of the previous Auction House, don't make the result negative. The memory allocated by a
+     * thread that both started and ended during the measurement is not counted.
+     *
+     * @param allocatedBytesByThread the number of bytes allocated by each thread when the measurement started
+     * @return the number of bytes, -1 if the JVM doesn't measure the allocated memory
+     */
+    private static long getAllocatedBytesSince(Map< Long, Long > allocatedBytesByThread) {
+        Map< Long, Long > currentAllocatedBytesByThread = getAllocatedBytesByThread();
+        if (allocatedBytesByThread == null || currentAllocatedBytesByThread == null) {
+            return -1;
+        }
+
+        long allocatedBytes = 0;
+        for (Map.Entry< Long, Long > thread : currentAllocatedBytesByThread.entrySet()) {
+            long threadAllocatedBytes = thread.getValue() - allocatedBytesByThread.getOrDefault(thread.getKey(), 0L);
+            allocatedBytes += Math.max(threadAllocatedBytes, 0);
+        }
+
+        return allocatedBytes;
+    }
+
+    /**
+     * Convert the results of the tests to JSON.
+     *
+     * @param results the results of the tests
+     * @return the JSON report
+     */
+    static String toJson(List< TestResult > results) {
+        StringBuilder json = new StringBuilder("{\n  \"tests\": [");
+
+        long totalWallTimeNanos = 0;
+        long totalAllocatedBytes = 0;
+        int noPassedTests = 0;
+        for (int i = 0; i < results.size(); i++) {
+            TestResult result = results.get(i);
+            totalWallTimeNanos += result.wallTimeNanos;
+            // The total is only known if the memory allocated by every test was measured.
+            totalAllocatedBytes = totalAllocatedBytes < 0 || result.allocatedBytes < 0 ? -1 :
+                    totalAllocatedBytes + result.allocatedBytes;
+            if (result.passed) {
+                noPassedTests++;
+            }
+
+            json.append(i == 0 ? "\n" : ",\n")
+                    .append("    {\"name\": ").append(quote(result.name))
+                    .append(", \"passed\": ").append(result.passed)
+                    .append(", \"wallTimeNanos\": ").append(result.wallTimeNanos)
+                    .append(", \"allocatedBytes\": ").append(result.allocatedBytes)
+                    .append(", \"expectedLines\": ").append(result.noExpectedLines)
+                    .append(", \"actualLines\": ").append(result.noActualLines);
+            if (!result.passed) {
+                json.append(", \"firstDifferentLine\": ").append(result.firstDifferentLine)
+                        .append(", \"expected\": ").append(quote(result.expectedLine))
+                        .append(", \"actual\": ").append(quote(result.actualLine));
+            }
+            json.append('}');
+        }
+
+        json.append("\n  ],\n  \"passed\": ").append(noPassedTests)
+                .append(",\n  \"failed\": ").append(results.size() - noPassedTests)
+                .append(",\n  \"totalWallTimeNanos\": ").append(totalWallTimeNanos)
+                .append(",\n  \"totalAllocatedBytes\": ").append(totalAllocatedBytes)
+                .append("\n}\n");
+
+        return json.toString();
+    }
+
+    /**
+     * Quote a text as a JSON string.
+     *
+     * @param text the text
+     * @return the JSON string, null if there is no text
+     */
+    private static String quote(String text) {
+        if (text == null) {
+            return "null";
+        }
+
+        StringBuilder quotedText = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            switch (character) {
+                case '"' -> quotedText.append("\\\"");
+                case '\\' -> quotedText.append("\\\\");
+                case '\n' -> quotedText.append("\\n");
+                case '\r' -> quotedText.append("\\r");
+                case '\t' -> quotedText.append("\\t");
+                default -> {
+                    if (character < 0x20) {
+                        quotedText.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        quotedText.append(character);
+                    }
+                }
+            }
+        }
+
+        return quotedText.append('"').toString();
+    }
+
+    /**
+     * Sets whether the codes of the colors are ignored by the comparison or not.
+     *
+     * @param ignoreAnsi whether the codes of the colors are ignored or not
+     */
+    public void setIgnoreAnsi(boolean ignoreAnsi) {
+        this.ignoreAnsi = ignoreAnsi;
+    }
+
+    /**
+     * Sets whether the lines that depend on the random offers are ignored by the comparison or not.
+     *
+     * @param ignoreRandomLines whether the lines that depend on the random offers are ignored or not
+     */
+    public void setIgnoreRandomLines(boolean ignoreRandomLines) {
+        this.ignoreRandomLines = ignoreRandomLines;
+    }
+
+    /**
+     * Sets whether the order of the lines is ignored by the comparison or not.
+     *
+     * @param ignoreOrder whether the order of the lines is ignored or not
+     */
+    public void setIgnoreOrder(boolean ignoreOrder) {
+        this.ignoreOrder = ignoreOrder;
+    }
+
+    /**
+     * The type Test result.
+     * <p>
+     * Class that describes the result of a test: whether its output was the expected one, where the first difference
+     * is and how long the test took.
+     */
+    public static class TestResult {
+        /**
+         * The test's name.
+         */
+        final String name;
+        /**
+         * Whether the output was the expected one or not.
+         */
+        final boolean passed;
+        /**
+         * The wall time of the test, in nanoseconds.
+         */
+        final long wallTimeNanos;
+        /**
+         * The memory allocated by the test, in bytes, -1 if it couldn't be measured.
+         */
+        final long allocatedBytes;
+        /**
+         * The number of compared lines of the expected output.
+         */
+        final int noExpectedLines;
+        /**
+         * The number of compared lines of the test's output.
+         */
+        final int noActualLines;
+        /**
+         * The number of the first compared line that differs, 0 if the output was the expected one.
+         */
+        final int firstDifferentLine;
+        /**
+         * The expected line at the first difference, null if the expected output has ended.
+         */
+        final String expectedLine;
+        /**
+         * The line printed by the test at the first difference, null if the test's output has ended.
+         */
+        final String actualLine;
+
+        /**
+         * Instantiates a new Test Result.
+         *
+         * @param name               the test's name
+         * @param passed             whether the output was the expected one or not
+         * @param wallTimeNanos      the wall time of the test, in nanoseconds
+         * @param allocatedBytes     the memory allocated by the test, in bytes
+         * @param noExpectedLines    the number of compared lines of the expected output
+         * @param noActualLines      the number of compared lines of the test's output
+         * @param firstDifferentLine the number of the first compared line that differs
+         * @param expectedLine       the expected line at the first difference
+         * @param actualLine         the line printed by the test at the first difference
+         */
+        TestResult(String name, boolean passed, long wallTimeNanos, long allocatedBytes, int noExpectedLines,
+                   int noActualLines, int firstDifferentLine, String expectedLine, String actualLine) {
+            this.name = name;
+            this.passed = passed;
+            this.wallTimeNanos = wallTimeNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.noExpectedLines = noExpectedLines;
+            this.noActualLines = noActualLines;
+            this.firstDifferentLine = firstDifferentLine;
+            this.expectedLine = expectedLine;
+            this.actualLine = actualLine;
+        }
+
+        /**
+         * Whether the output was the expected one or not.
+         *
+         * @return true if the output was the expected one, else false
+         */
+        public boolean isPassed() {
+            return passed;
+        }
+
+        /**
+         * Gets the wall time of the test.
+         *
+         * @return the wall time, in nanoseconds
+         */
+        public long getWallTimeNanos() {
+            return wallTimeNanos;
+        }
+
+        /**
+         * Gets the memory allocated by the test.
+         *
+         * @return the memory allocated, in bytes, -1 if it couldn't be measured
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+
+    /**
+     * The type Capturing event sink.
+     * <p>
+     * Class that describes the behaviour of a sink that keeps the lines in memory, for comparing them afterwards.
+     */
+    private static class CapturingEventSink implements EventSink {
+        /**
+         * The lines written so far.
+         */
+        private final List< String > lines = new ArrayList<>();
+
+        /**
+         * Keep a line.
+         *
+         * @param line the line
+         */
+        @Override
+        public synchronized void write(String line) {
+            lines.add(line);
+        }
+
+        /**
+         * There is nothing to flush.
+         */
+        @Override
+        public void flush() {
+        }
+
+        /**
+         * There is nothing to close.
+         */
+        @Override
+        public void close() {
+        }
+
+        /**
+         * Gets a copy of the lines written so far.
+         *
+         * @return the lines
+         */
+        synchronized List< String > getLines() {
+            return new ArrayList<>(lines);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package AuctionHouseProject.AuctionSystem;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The type Latency policy.
+ * <p>
+ * Class that describes the behaviour of the policy used for simulating the latency of the operations of the people of
+ * the Auction House (adding and listing products). The policy NONE doesn't wait at all and costs nothing, so
+ * it is the one used in production, while a jittered policy waits a random time, up to a maximum, after each
+ * operation, which makes the interleaving of the threads visible in demonstrations and tests.
+ */
+public final class LatencyPolicy {
+    /**
+     * The system property used for choosing the maximum simulated latency, in milliseconds; 0 disables it.
+     */
+    public static final String MAX_MILLIS_PROPERTY = "auctionhouse.latency.maxMillis";
+
+    /**
+     * The policy that doesn't simulate any latency.
+     */
+    public static final LatencyPolicy NONE = new LatencyPolicy(0);
+
+    /**
+     * The policy used by the Auction House.
+     */
+    private static volatile LatencyPolicy instanceOfLatencyPolicy = null;
+
+    /**
+     * The maximum simulated latency, in milliseconds, 0 if the latency isn't simulated.
+     */
+    private final int maxMillis;
+
+    /**
+     * Instantiates a new Latency Policy.
+     *
+     * @param maxMillis the maximum simulated latency, in milliseconds
+     */
+    private LatencyPolicy(int maxMillis) {
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * Gets a policy that waits a random time, less than the maximum, after each operation.
+     *
+     * @param maxMillis the maximum simulated latency, in milliseconds
+     * @return the policy, NONE if the maximum isn't positive
+     */
+    public static LatencyPolicy jittered(int maxMillis) {
+        return maxMillis > 0 ? new LatencyPolicy(maxMillis) : NONE;
+    }
+
+    /**
+     * Gets the policy used by the Auction House.
+     * <p>
+     * If the policy hasn't been chosen yet it is created from the system property (one second of jitter by default,
+     * as the demonstrations expect) and returned, else it returns the chosen one.
+     *
+     * @return the policy used by the Auction House
+     */
+    public static LatencyPolicy getInstance() {
+        LatencyPolicy policy = instanceOfLatencyPolicy;
+        if (policy == null) {
+            policy = jittered(Integer.getInteger(MAX_MILLIS_PROPERTY, 1000));
+            instanceOfLatencyPolicy = policy;
+        }
+
+        return policy;
+    }
+
+    /**
+     * Sets the policy used by the Auction House.
+     *
+     * @param policy the policy
+     */
+    public static void setInstance(LatencyPolicy policy) {
+        instanceOfLatencyPolicy = policy;
+    }
+
+    /**
+     * Gets the maximum simulated latency.
+     *
+     * @return the maximum simulated latency, in milliseconds, 0 if the latency isn't simulated
+     */
+    public int getMaxMillis() {
+        return maxMillis;
+    }
+
+    /**
+     * Wait for the simulated latency of an operation.
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public void pause() throws InterruptedException {
+        if (maxMillis == 0) {
+            return;
+        }
+
+        Thread.sleep(ThreadLocalRandom.current().nextInt(maxMillis));
+    }
+}
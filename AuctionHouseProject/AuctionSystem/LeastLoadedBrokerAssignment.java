@@ -0,0 +1,164 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.People.Broker;
+import AuctionHouseProject.People.Client;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The type Least loaded broker assignment.
+ * <p>
+ * Class that describes the behaviour of the policy that gives a client to the broker with the fewest clients in the
+ * auctions that haven't started yet. The brokers are kept in a binary min-heap ordered by their load and then by their
+ * id, so the least loaded broker is found in constant time and a change of a broker's load only moves that broker in
+ * the heap, in logarithmic time, however many brokers there are. The brokers with the same load get the new clients in
+ * the order of their ids.
+ * <p>
+ * The loads only change on the thread that executes the commands, when a client signs up and when an auction starts,
+ * so the same commands always give the clients to the same brokers, also when they are executed again from the
+ * journal. The brokers added since the last assignment are put in the heap at the next one.
+ */
+public class LeastLoadedBrokerAssignment implements BrokerAssignmentPolicy {
+    /**
+     * The brokers, as a binary min-heap ordered by their load and then by their id.
+     */
+    private Broker[] heap = new Broker[16];
+    /**
+     * The number of brokers in the heap.
+     */
+    private int size = 0;
+    /**
+     * The positions of the brokers in the heap.
+     */
+    private final Map< Broker, Integer > positions = new HashMap<>();
+
+    /**
+     * Choose the broker with the fewest active sign-ups.
+     *
+     * @param brokers the brokers of the Auction House, at least one
+     * @param auction the auction that the client signs up for
+     * @param client  the client
+     * @return the broker
+     * @throws IllegalStateException if the Auction House has no brokers
+     */
+    @Override
+    public synchronized Broker assignBroker(List< Broker > brokers, Auction auction, Client client) {
+        if (brokers.isEmpty()) {
+            throw new IllegalStateException("There is no broker who could represent the client with the ID " +
+                    client.getId() + " in the auction with the ID " + auction.getId() + ".");
+        }
+
+        // The brokers are only added at the end of the list, so the ones that aren't in the heap yet are the last ones.
+        if (size > brokers.size() || (size > 0 && !positions.containsKey(brokers.get(size - 1)))) {
+            positions.clear();
+            size = 0;
+        }
+        for (int i = size; i < brokers.size(); i++) {
+            add(brokers.get(i));
+        }
+
+        return heap[0];
+    }
+
+    /**
+     * Move a broker in the heap after its load has changed.
+     *
+     * @param broker the broker
+     */
+    @Override
+    public synchronized void onLoadChanged(Broker broker) {
+        Integer position = positions.get(broker);
+        if (position != null) {
+            siftDown(siftUp(position));
+        }
+    }
+
+    /**
+     * Add a broker to the heap.
+     *
+     * @param broker the broker
+     */
+    private void add(Broker broker) {
+        if (size == heap.length) {
+            Broker[] newHeap = new Broker[2 * heap.length];
+            System.arraycopy(heap, 0, newHeap, 0, size);
+            heap = newHeap;
+        }
+
+        heap[size] = broker;
+        positions.put(broker, size);
+        siftUp(size++);
+    }
+
+    /**
+     * Move a broker up the heap while it is less loaded than its parent.
+     *
+     * @param position the broker's position
+     * @return the broker's new position
+     */
+    private int siftUp(int position) {
+        Broker broker = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!isLessLoaded(broker, heap[parent])) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(broker, position);
+
+        return position;
+    }
+
+    /**
+     * Move a broker down the heap while one of its children is less loaded than it.
+     *
+     * @param position the broker's position
+     */
+    private void siftDown(int position) {
+        Broker broker = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && isLessLoaded(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!isLessLoaded(heap[child], broker)) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(broker, position);
+    }
+
+    /**
+     * Put a broker at a position of the heap.
+     *
+     * @param broker   the broker
+     * @param position the position
+     */
+    private void place(Broker broker, int position) {
+        heap[position] = broker;
+        positions.put(broker, position);
+    }
+
+    /**
+     * Check if a broker should get a client before another one: it has fewer active sign-ups or, with the same number,
+     * a smaller id.
+     *
+     * @param broker      the broker
+     * @param otherBroker the other broker
+     * @return true if the broker comes first, else false
+     */
+    private static boolean isLessLoaded(Broker broker, Broker otherBroker) {
+        int load = broker.getNoActiveSignUps();
+        int otherLoad = otherBroker.getNoActiveSignUps();
+        return load < otherLoad || (load == otherLoad && broker.getId() < otherBroker.getId());
+    }
+}
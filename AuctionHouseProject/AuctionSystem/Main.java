@@ -1,5 +1,11 @@
 package AuctionHouseProject.AuctionSystem;
 
+import AuctionHouseProject.Metrics.MetricsRegistry;
+import AuctionHouseProject.Persistence.BidJournal;
+import AuctionHouseProject.Persistence.CommandJournal;
+
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 
@@ -9,12 +15,54 @@ import java.util.Scanner;
 public class Main {
     /**
      * The entry point of application.
+     * <p>
+     * The commands are read from the standard input, unless a file with commands is given, in which case they are
+     * replayed in batch mode. If a snapshot file is chosen by the system property, the state is first loaded from the
+     * last snapshot and new snapshots are taken periodically. If a journal is chosen as well, the commands that follow
+     * the snapshot are recovered from it and the next commands are journaled to it. The offers of the auctions are
+     * recorded in the bid journal, if its directory is chosen, and the metrics are dumped periodically, if their file
+     * is chosen.
      *
-     * @param args the input arguments
+     * @param args the input arguments: optionally, the file with the commands
+     * @throws IOException          if the journal can't be opened or read
+     * @throws InterruptedException if the thread was interrupted while replaying the commands
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
         // Open the control panel.
         AuctionHouseService storeOwnerInterface = new AuctionHouseService();
+
+        // Record the offers of the auctions, if the bid journal is used.
+        String bidJournalDirectory = System.getProperty(BidJournal.DIRECTORY_PROPERTY);
+        if (bidJournalDirectory != null) {
+            AuctionHouse.getInstance().setBidJournal(BidJournal.open(Path.of(bidJournalDirectory)));
+        }
+
+        // Dump the metrics periodically, if their file is chosen.
+        MetricsRegistry.getInstance().startPeriodicDumpFromSystemProperties();
+
+        // Load the last snapshot, if snapshots are taken.
+        long snapshotSequence = -1;
+        String snapshotFile = System.getProperty(Snapshotter.FILE_PROPERTY);
+        if (snapshotFile != null) {
+            snapshotSequence = storeOwnerInterface.restoreSnapshots(Snapshotter.fromSystemProperties(
+                    AuctionHouse.getInstance(), Path.of(snapshotFile)));
+        }
+
+        // Recover the commands that follow the snapshot from the journal, if one is chosen.
+        String journalFile = System.getProperty(CommandJournal.FILE_PROPERTY);
+        if (journalFile != null) {
+            storeOwnerInterface.recover(CommandJournal.open(Path.of(journalFile)), snapshotSequence);
+        }
+
+        // Run again the auctions interrupted while the snapshot was taken, if the journal hasn't done it.
+        storeOwnerInterface.restartInterruptedAuctions();
+
+        // Replay the commands from the file, if one is given.
+        if (args.length > 0) {
+            new BatchReplay(storeOwnerInterface, Path.of(args[0])).replay();
+            return;
+        }
+
         Scanner scanner = new Scanner(System.in);
 
         // Give instructions that should be executed on the Auction System.
@@ -23,5 +71,7 @@ public class Main {
             storeOwnerInterface.controlPanel(command);
         }
 
+        // Let the auctions that are still running end.
+        storeOwnerInterface.close();
     }
 }
@@ -4,34 +4,62 @@ package AuctionHouseProject.AuctionSystem;
  * The type Offer.
  * <p>
  * Class that describes the behaviour of an offer made by a client for a product. It is characterized by a maximum
- * Price that the client is able to offer and his current offer.
+ * Price that the client is able to offer and his current offer. The offers made through a broker are only views of a
+ * row of the auction's offer book, where the prices are actually stored, so they are valid until the auction ends. The
+ * standalone offers keep the prices themselves.
  */
 public class Offer {
     /**
-     * The maximum price that the client is able to offer for a product.
+     * The offer book where the offer is stored, null for a standalone offer.
+     */
+    private final OfferBook offerBook;
+    /**
+     * The order in which the offer was made, which identifies its row in the offer book.
+     */
+    private final int signUpIndex;
+    /**
+     * The maximum price that the client is able to offer for a product, used only by a standalone offer.
      */
     private final double maxPrice;
     /**
-     * The client's current offered price for the product.
+     * The client's current offered price for the product, used only by a standalone offer.
      */
     private double currentPrice = 0;
 
     /**
-     * Instantiates a new Offer.
+     * Instantiates a new standalone Offer, which isn't stored in any offer book.
      *
      * @param maxPrice the maximum price that the client is able to offer for a product
      */
     public Offer(double maxPrice) {
+        this.offerBook = null;
+        this.signUpIndex = -1;
         this.maxPrice = maxPrice;
     }
 
+    /**
+     * Instantiates a new Offer.
+     *
+     * @param offerBook   the offer book where the offer is stored
+     * @param signUpIndex the order in which the offer was made
+     */
+    Offer(OfferBook offerBook, int signUpIndex) {
+        this.offerBook = offerBook;
+        this.signUpIndex = signUpIndex;
+        this.maxPrice = 0;
+    }
+
     /**
      * Gets the maximum price that the client is able to offer for a product.
      *
      * @return the maximum price that the client is able to offer for a product
      */
     public double getMaxPrice() {
-        return maxPrice;
+        if (offerBook == null) {
+            return maxPrice;
+        }
+
+        return offerBook.getMaxPrice(offerBook.getRow(signUpIndex));
     }
 
     /**
@@ -40,7 +68,11 @@ public class Offer {
      * @return the client's current offered price for a product
      */
     public double getCurrentPrice() {
-        return currentPrice;
+        if (offerBook == null) {
+            return currentPrice;
+        }
+
+        return offerBook.getCurrentPrice(offerBook.getRow(signUpIndex));
     }
 
     /**
@@ -49,6 +81,11 @@ public class Offer {
      * @param currentPrice the client's current offered price for a product
      */
     public void setCurrentPrice(double currentPrice) {
-        this.currentPrice = currentPrice;
+        if (offerBook == null) {
+            this.currentPrice = currentPrice;
+            return;
+        }
+
+        offerBook.setCurrentPrice(offerBook.getRow(signUpIndex), currentPrice);
     }
 }
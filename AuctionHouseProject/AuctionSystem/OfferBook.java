@@ -0,0 +1,476 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.People.Broker;
+import AuctionHouseProject.People.Client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The type Offer book.
+ * <p>
+ * Class that describes the behaviour of the book of offers of an auction. Each offer made by a client that has signed
+ * up for the auction is a row, stored in parallel arrays (maximum price, current price, client and broker), which grow
+ * in place. When the bidding starts the rows are grouped once by the brokers that represent the clients, in the order
+ * in which the brokers have joined the auction, so each step of the auction reads the arrays from the beginning to the
+ * end. Each broker's index is kept in an identity map, so a broker finds its rows without going through the list of
+ * brokers. The offers can also be seen one by one through Offer views.
+ * <p>
+ * The book also keeps track of the leading offer while the prices are updated, so the winner of each step of the
+ * auction is known without going through the offers again.
+ */
+public class OfferBook {
+    /**
+     * The number of offers for which there is room initially.
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * The maximum price of each offer.
+     */
+    private double[] maxPrices = new double[INITIAL_CAPACITY];
+    /**
+     * The current price of each offer.
+     */
+    private double[] currentPrices = new double[INITIAL_CAPACITY];
+    /**
+     * The client that has made each offer.
+     */
+    private Client[] clients = new Client[INITIAL_CAPACITY];
+    /**
+     * The number of auctions won by the client of each offer, taken when the bidding starts.
+     */
+    private int[] noWonAuctions = new int[INITIAL_CAPACITY];
+    /**
+     * The index in the list of brokers of the broker that represents the client of each offer.
+     */
+    private int[] brokerSlots = new int[INITIAL_CAPACITY];
+    /**
+     * The order in which each offer was made.
+     */
+    private int[] signUpIndexes = new int[INITIAL_CAPACITY];
+    /**
+     * The row of each offer, by the order in which the offers were made.
+     */
+    private int[] rowsBySignUp = new int[INITIAL_CAPACITY];
+    /**
+     * The number of offers.
+     */
+    private int size = 0;
+
+    /**
+     * The brokers that represent clients in the auction, in the order in which they have joined it.
+     */
+    private final List< Broker > brokers = new ArrayList<>();
+    /**
+     * The index of each broker in the list of brokers.
+     */
+    private final Map< Broker, Integer > brokerSlotsByBroker = new IdentityHashMap<>();
+    /**
+     * Where the rows of each broker end, once the rows are grouped by broker.
+     */
+    private int[] brokerEnds = new int[0];
+    /**
+     * Whether the rows are grouped by broker or not.
+     */
+    private boolean grouped = true;
+    /**
+     * The row of the leading offer, -1 if there are no offers.
+     */
+    private int leadingRow = -1;
+    /**
+     * Whether the leading offer has to be searched again or not, because its price was lowered.
+     */
+    private boolean leaderStale = false;
+
+    /**
+     * Add an offer to the book.
+     *
+     * @param broker   the broker that represents the client
+     * @param client   the client
+     * @param maxPrice the maximum price that the client is able to offer
+     * @return the view of the new offer
+     */
+    public Offer addOffer(Broker broker, Client client, double maxPrice) {
+        if (size == maxPrices.length) {
+            grow();
+        }
+
+        Integer brokerSlot = brokerSlotsByBroker.get(broker);
+        if (brokerSlot == null) {
+            brokerSlot = brokers.size();
+            brokers.add(broker);
+            brokerSlotsByBroker.put(broker, brokerSlot);
+        }
+
+        maxPrices[size] = maxPrice;
+        currentPrices[size] = 0;
+        clients[size] = client;
+        noWonAuctions[size] = client.getNoWonAuctions();
+        brokerSlots[size] = brokerSlot;
+        signUpIndexes[size] = size;
+        rowsBySignUp[size] = size;
+        size++;
+        grouped = false;
+        updateLeader(size - 1);
+
+        return new Offer(this, size - 1);
+    }
+
+    /**
+     * Gets the number of offers.
+     *
+     * @return the number of offers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the maximum price of an offer.
+     *
+     * @param row the offer's row
+     * @return the maximum price
+     */
+    public double getMaxPrice(int row) {
+        return maxPrices[row];
+    }
+
+    /**
+     * Gets the current price of an offer.
+     *
+     * @param row the offer's row
+     * @return the current price
+     */
+    public double getCurrentPrice(int row) {
+        return currentPrices[row];
+    }
+
+    /**
+     * Sets the current price of an offer and updates the leading offer.
+     *
+     * @param row          the offer's row
+     * @param currentPrice the current price
+     */
+    public void setCurrentPrice(int row, double currentPrice) {
+        double previousPrice = currentPrices[row];
+        currentPrices[row] = currentPrice;
+
+        // The offers only go up during an auction, so the leader only has to be searched again if it went down.
+        if (currentPrice < previousPrice && row == leadingRow) {
+            leaderStale = true;
+        } else if (!leaderStale) {
+            updateLeader(row);
+        }
+    }
+
+    /**
+     * Gets the row of the leading offer: the one with the highest price and, between equal prices, the one whose
+     * client has won more auctions and, after that, the one from the last row. This is the offer that comes out on top
+     * when the offers are compared one by one, in the order of the rows, each of them winning the ties with the best
+     * offer so far if its client has won at least as many auctions.
+     *
+     * @return the row of the leading offer, -1 if there are no offers
+     */
+    public int getLeadingRow() {
+        if (leaderStale) {
+            findLeader();
+        }
+
+        return leadingRow;
+    }
+
+    /**
+     * Whether the offers are settled at a price or not: none of the clients would change his offer if he were notified
+     * of the price, either because he can't afford more or because his offer is already equal to it.
+     *
+     * @param price the product's price
+     * @return true if none of the offers would change, else false
+     */
+    public boolean isSettled(double price) {
+        for (int row = 0; row < size; row++) {
+            if (price < maxPrices[row] && price != currentPrices[row]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Resolve the auction by proxy bidding, in a single pass over the offers: every client whose maximum price is
+     * above the starting price bids up to his maximum price, the leading offer wins, with the same tie-break as the
+     * stepped auction, and the winner pays the second highest maximum price. The price is raised to the reserve price
+     * when nobody else has bid or the second highest maximum price is lower, but never above the winner's maximum
+     * price, so a lone bidder or a winner followed by a low bid can still buy the product.
+     *
+     * @param startingPrice the product's starting price
+     * @param reservePrice  the product's minimum selling price
+     * @return the row of the winning offer, whose current price is the clearing price, -1 if nobody has bid
+     */
+    public int resolveProxyBidding(double startingPrice, double reservePrice) {
+        int winningRow = -1;
+        double clearingPrice = startingPrice;
+
+        for (int row = 0; row < size; row++) {
+            // The clients that can't afford more than the starting price don't bid at all.
+            if (maxPrices[row] <= startingPrice) {
+                continue;
+            }
+
+            currentPrices[row] = maxPrices[row];
+            if (winningRow < 0) {
+                winningRow = row;
+            } else if (isAhead(row, winningRow)) {
+                clearingPrice = Math.max(clearingPrice, currentPrices[winningRow]);
+                winningRow = row;
+            } else {
+                clearingPrice = Math.max(clearingPrice, currentPrices[row]);
+            }
+        }
+
+        if (winningRow >= 0) {
+            currentPrices[winningRow] = Math.min(maxPrices[winningRow], Math.max(clearingPrice, reservePrice));
+        }
+        leadingRow = winningRow;
+        leaderStale = false;
+
+        return winningRow;
+    }
+
+    /**
+     * Prepare the book for the bidding: group the offers by broker and take the number of auctions won by each client,
+     * which is used for breaking the ties between equal offers.
+     */
+    public void startBidding() {
+        for (int row = 0; row < size; row++) {
+            noWonAuctions[row] = clients[row].getNoWonAuctions();
+        }
+
+        groupByBroker();
+        findLeader();
+    }
+
+    /**
+     * Gets the client that has made an offer.
+     *
+     * @param row the offer's row
+     * @return the client
+     */
+    public Client getClient(int row) {
+        return clients[row];
+    }
+
+    /**
+     * Gets the index in the list of brokers of the broker that represents the client of an offer.
+     *
+     * @param row the offer's row
+     * @return the broker's index
+     */
+    public int getBrokerSlot(int row) {
+        return brokerSlots[row];
+    }
+
+    /**
+     * Gets the brokers that represent clients in the auction, in the order in which they have joined it.
+     *
+     * @return the brokers
+     */
+    public List< Broker > getBrokers() {
+        return Collections.unmodifiableList(brokers);
+    }
+
+    /**
+     * Gets the index of a broker in the list of brokers.
+     *
+     * @param broker the broker
+     * @return the broker's index, -1 if the broker doesn't represent any client in the auction
+     */
+    public int getBrokerSlot(Broker broker) {
+        Integer brokerSlot = brokerSlotsByBroker.get(broker);
+        return brokerSlot == null ? -1 : brokerSlot;
+    }
+
+    /**
+     * Gets the first row of a broker's offers. The rows must have been grouped by broker.
+     *
+     * @param brokerSlot the broker's index
+     * @return the first row
+     * @throws IllegalStateException if the rows aren't grouped by broker
+     */
+    public int getFirstRow(int brokerSlot) {
+        checkGrouped();
+        return brokerSlot == 0 ? 0 : brokerEnds[brokerSlot - 1];
+    }
+
+    /**
+     * Gets the row after the last row of a broker's offers. The rows must have been grouped by broker.
+     *
+     * @param brokerSlot the broker's index
+     * @return the row after the last row
+     * @throws IllegalStateException if the rows aren't grouped by broker
+     */
+    public int getEndRow(int brokerSlot) {
+        checkGrouped();
+        return brokerEnds[brokerSlot];
+    }
+
+    /**
+     * Gets the view of the offer from a row.
+     *
+     * @param row the offer's row
+     * @return the view of the offer
+     */
+    public Offer getOffer(int row) {
+        return new Offer(this, signUpIndexes[row]);
+    }
+
+    /**
+     * Gets the row of an offer, given the order in which it was made.
+     *
+     * @param signUpIndex the order in which the offer was made
+     * @return the offer's row
+     */
+    int getRow(int signUpIndex) {
+        return rowsBySignUp[signUpIndex];
+    }
+
+    /**
+     * Group the rows by broker, keeping the order in which the offers of each broker were made. The rows are sorted by
+     * counting, so grouping them takes a single pass over the book. Nothing is done if they are already grouped.
+     */
+    public void groupByBroker() {
+        if (grouped) {
+            return;
+        }
+
+        int noBrokers = brokers.size();
+        int[] ends = new int[noBrokers];
+        for (int row = 0; row < size; row++) {
+            ends[brokerSlots[row]]++;
+        }
+        for (int slot = 1; slot < noBrokers; slot++) {
+            ends[slot] += ends[slot - 1];
+        }
+
+        double[] groupedMaxPrices = new double[maxPrices.length];
+        double[] groupedCurrentPrices = new double[currentPrices.length];
+        Client[] groupedClients = new Client[clients.length];
+        int[] groupedNoWonAuctions = new int[noWonAuctions.length];
+        int[] groupedBrokerSlots = new int[brokerSlots.length];
+        int[] groupedSignUpIndexes = new int[signUpIndexes.length];
+
+        int[] nextRows = new int[noBrokers];
+        for (int slot = 1; slot < noBrokers; slot++) {
+            nextRows[slot] = ends[slot - 1];
+        }
+        for (int row = 0; row < size; row++) {
+            int groupedRow = nextRows[brokerSlots[row]]++;
+
+            groupedMaxPrices[groupedRow] = maxPrices[row];
+            groupedCurrentPrices[groupedRow] = currentPrices[row];
+            groupedClients[groupedRow] = clients[row];
+            groupedNoWonAuctions[groupedRow] = noWonAuctions[row];
+            groupedBrokerSlots[groupedRow] = brokerSlots[row];
+            groupedSignUpIndexes[groupedRow] = signUpIndexes[row];
+            rowsBySignUp[signUpIndexes[row]] = groupedRow;
+        }
+
+        maxPrices = groupedMaxPrices;
+        currentPrices = groupedCurrentPrices;
+        clients = groupedClients;
+        noWonAuctions = groupedNoWonAuctions;
+        brokerSlots = groupedBrokerSlots;
+        signUpIndexes = groupedSignUpIndexes;
+        brokerEnds = ends;
+        grouped = true;
+
+        // The ties are broken by the order of the rows, which has changed.
+        findLeader();
+    }
+
+    /**
+     * Remove all the offers. The views of the removed offers mustn't be used anymore.
+     */
+    public void clear() {
+        Arrays.fill(clients, 0, size, null);
+        size = 0;
+        brokers.clear();
+        brokerSlotsByBroker.clear();
+        brokerEnds = new int[0];
+        grouped = true;
+        leadingRow = -1;
+        leaderStale = false;
+    }
+
+    /**
+     * Check that the rows are grouped by broker.
+     *
+     * @throws IllegalStateException if the rows aren't grouped by broker
+     */
+    private void checkGrouped() {
+        if (!grouped) {
+            throw new IllegalStateException("The offers aren't grouped by broker, the bidding hasn't started yet.");
+        }
+    }
+
+    /**
+     * Make an offer the leading one if it is ahead of the current leading offer.
+     *
+     * @param row the offer's row
+     */
+    private void updateLeader(int row) {
+        if (leadingRow < 0 || isAhead(row, leadingRow)) {
+            leadingRow = row;
+        }
+    }
+
+    /**
+     * Search the leading offer through all the offers.
+     */
+    private void findLeader() {
+        leadingRow = -1;
+        leaderStale = false;
+
+        for (int row = 0; row < size; row++) {
+            updateLeader(row);
+        }
+    }
+
+    /**
+     * Whether an offer is ahead of another one or not: its price is higher or, if the prices are equal, its client has
+     * won more auctions or, if they have won as many auctions, it comes later in the book.
+     *
+     * @param row      the offer's row
+     * @param otherRow the other offer's row
+     * @return true if the offer is ahead of the other one, else false
+     */
+    private boolean isAhead(int row, int otherRow) {
+        if (currentPrices[row] != currentPrices[otherRow]) {
+            return currentPrices[row] > currentPrices[otherRow];
+        } else if (noWonAuctions[row] != noWonAuctions[otherRow]) {
+            return noWonAuctions[row] > noWonAuctions[otherRow];
+        }
+
+        return row >= otherRow;
+    }
+
+    /**
+     * Double the room for offers.
+     */
+    private void grow() {
+        int capacity = maxPrices.length * 2;
+
+        maxPrices = Arrays.copyOf(maxPrices, capacity);
+        currentPrices = Arrays.copyOf(currentPrices, capacity);
+        clients = Arrays.copyOf(clients, capacity);
+        noWonAuctions = Arrays.copyOf(noWonAuctions, capacity);
+        brokerSlots = Arrays.copyOf(brokerSlots, capacity);
+        signUpIndexes = Arrays.copyOf(signUpIndexes, capacity);
+        rowsBySignUp = Arrays.copyOf(rowsBySignUp, capacity);
+    }
+}
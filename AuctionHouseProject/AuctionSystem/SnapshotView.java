@@ -0,0 +1,452 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.Enums.AuctionMode;
+import AuctionHouseProject.People.Broker;
+import AuctionHouseProject.People.Client;
+import AuctionHouseProject.Products.Product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The type Snapshot view.
+ * <p>
+ * Class that describes the view of the Auction House's state that the snapshots are encoded from. It keeps an
+ * immutable copy of every client, product, broker and auction, and the threads that change one of them mark it as
+ * changed. Before a snapshot, the thread that executes the commands copies only the entities changed since the
+ * previous snapshot into the view, so the copying costs as much as the changes, not as the whole state. The view
+ * is then encoded and written by the snapshots' own thread while the next commands are executed, and it isn't
+ * copied into again until it has been written.
+ * <p>
+ * The ending of an auction changes the auction, its product, its participants and their brokers, so it holds the
+ * read lock of the view while it applies and marks these changes, and the copying holds the write lock: it waits
+ * only for the endings in progress, not for the running auctions, and sees either all the changes of an ending or
+ * none. The offers of a running auction change at every step, so a running auction is copied as it was when it
+ * started, and it is restored as an auction that has to be run again.
+ */
+final class SnapshotView {
+    /**
+     * The lock held by the endings of the auctions while they change the state, and exclusively by the copying of the
+     * changes.
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The clients changed since the last copy.
+     */
+    private final Set< Client > changedClients = ConcurrentHashMap.newKeySet();
+    /**
+     * The products added or removed since the last copy.
+     */
+    private final Set< Product > changedProducts = ConcurrentHashMap.newKeySet();
+    /**
+     * The brokers changed since the last copy.
+     */
+    private final Set< Broker > changedBrokers = ConcurrentHashMap.newKeySet();
+    /**
+     * The auctions changed since the last copy.
+     */
+    private final Set< Auction > changedAuctions = ConcurrentHashMap.newKeySet();
+    /**
+     * The auctions removed from the Auction House since the last copy.
+     */
+    private final Set< Auction > removedAuctions = ConcurrentHashMap.newKeySet();
+    /**
+     * The copies of the running auctions, made when they started.
+     */
+    private final Map< Auction, AuctionState > runningAuctions = new ConcurrentHashMap<>();
+
+    /**
+     * The copies of the clients, indexed and sorted by their id.
+     */
+    private final Map< Integer, ClientState > clients = new TreeMap<>();
+    /**
+     * The copies of the products available for auction. The id of a sold product may be given again, so they are
+     * indexed by the products themselves.
+     */
+    private final Map< Product, ProductState > products = new HashMap<>();
+    /**
+     * The copies of the brokers, indexed and sorted by their id.
+     */
+    private final Map< Integer, BrokerState > brokers = new TreeMap<>();
+    /**
+     * The copies of the active auctions. The id of a finished auction may be given again, so they are indexed by the
+     * auctions themselves.
+     */
+    private final Map< Auction, AuctionState > activeAuctions = new HashMap<>();
+    /**
+     * The copies of the finished auctions, in the order in which they were copied.
+     */
+    private final Map< Auction, AuctionState > finishedAuctions = new LinkedHashMap<>();
+
+    /**
+     * Gets the lock held by the endings of the auctions while they change the state.
+     *
+     * @return the lock of the endings
+     */
+    Lock getEndingLock() {
+        return lock.readLock();
+    }
+
+    /**
+     * Mark a client as changed.
+     *
+     * @param client the client
+     */
+    void clientChanged(Client client) {
+        changedClients.add(client);
+    }
+
+    /**
+     * Mark a product as added or removed.
+     *
+     * @param product the product
+     */
+    void productChanged(Product product) {
+        changedProducts.add(product);
+    }
+
+    /**
+     * Mark a broker as changed.
+     *
+     * @param broker the broker
+     */
+    void brokerChanged(Broker broker) {
+        changedBrokers.add(broker);
+    }
+
+    /**
+     * Mark an auction that isn't running as changed.
+     *
+     * @param auction the auction
+     */
+    void auctionChanged(Auction auction) {
+        changedAuctions.add(auction);
+    }
+
+    /**
+     * Mark an auction as removed from the Auction House.
+     *
+     * @param auction the auction
+     */
+    void auctionRemoved(Auction auction) {
+        removedAuctions.add(auction);
+    }
+
+    /**
+     * Copy an auction that has just started, while its offers are still in the order in which its participants have
+     * signed up. It is called while holding the auction's monitor.
+     *
+     * @param auction the auction
+     */
+    void auctionStarted(Auction auction) {
+        runningAuctions.put(auction, new AuctionState(auction, true));
+        changedAuctions.add(auction);
+    }
+
+    /**
+     * Mark an auction that is ending, with its participants and their brokers, as changed. It is called while holding
+     * the lock of the endings, before the offers of the auction are cleared.
+     *
+     * @param auction the auction
+     */
+    void auctionEnding(Auction auction) {
+        runningAuctions.remove(auction);
+        changedAuctions.add(auction);
+
+        OfferBook offerBook = auction.getOfferBook();
+        for (int row = 0; row < offerBook.size(); row++) {
+            changedClients.add(offerBook.getClient(row));
+        }
+        changedBrokers.addAll(offerBook.getBrokers());
+    }
+
+    /**
+     * Mark the whole state of the Auction House as changed, so the next copy includes all of it. It is called once,
+     * before any auction is started.
+     *
+     * @param auctionHouse the auction house
+     */
+    void markAll(AuctionHouse auctionHouse) {
+        changedClients.addAll(auctionHouse.getClients());
+        changedProducts.addAll(auctionHouse.getProducts());
+        changedBrokers.addAll(auctionHouse.getBrokers());
+        changedAuctions.addAll(auctionHouse.getActiveAuctions());
+        changedAuctions.addAll(auctionHouse.getFinishedAuctions());
+    }
+
+    /**
+     * Copy the entities changed since the last copy into the view. It is called by the thread that executes the
+     * commands, between two commands, while the view isn't being encoded.
+     *
+     * @param auctionHouse the auction house
+     */
+    void update(AuctionHouse auctionHouse) {
+        lock.writeLock().lock();
+        try {
+            for (Client client : changedClients) {
+                clients.put(client.getId(), new ClientState(client));
+            }
+            changedClients.clear();
+
+            for (Product product : changedProducts) {
+                if (auctionHouse.getProduct(product.getId()) == product) {
+                    products.put(product, new ProductState(product));
+                } else {
+                    products.remove(product);
+                }
+            }
+            changedProducts.clear();
+
+            for (Broker broker : changedBrokers) {
+                brokers.put(broker.getId(), new BrokerState(broker));
+            }
+            changedBrokers.clear();
+
+            for (Auction auction : changedAuctions) {
+                AuctionState runningAuction = runningAuctions.get(auction);
+                if (runningAuction != null) {
+                    activeAuctions.put(auction, runningAuction);
+                } else if (auctionHouse.isActive(auction)) {
+                    activeAuctions.put(auction, new AuctionState(auction, false));
+                } else if (activeAuctions.remove(auction) != null || !finishedAuctions.containsKey(auction)) {
+                    finishedAuctions.put(auction, new AuctionState(auction, false));
+                }
+            }
+            changedAuctions.clear();
+
+            for (Auction auction : removedAuctions) {
+                activeAuctions.remove(auction);
+                finishedAuctions.remove(auction);
+            }
+            removedAuctions.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the copies of the clients, sorted by their id.
+     *
+     * @return the copies of the clients
+     */
+    Collection< ClientState > getClients() {
+        return clients.values();
+    }
+
+    /**
+     * Gets the copies of the products available for auction, sorted by their id.
+     *
+     * @return the copies of the products
+     */
+    List< ProductState > getProducts() {
+        List< ProductState > sortedProducts = new ArrayList<>(products.values());
+        sortedProducts.sort(Comparator.comparingInt(productState -> productState.product.getId()));
+        return sortedProducts;
+    }
+
+    /**
+     * Gets the copies of the brokers, sorted by their id.
+     *
+     * @return the copies of the brokers
+     */
+    Collection< BrokerState > getBrokers() {
+        return brokers.values();
+    }
+
+    /**
+     * Gets the copies of the active auctions, sorted by their id.
+     *
+     * @return the copies of the active auctions
+     */
+    List< AuctionState > getActiveAuctions() {
+        List< AuctionState > sortedAuctions = new ArrayList<>(activeAuctions.values());
+        sortedAuctions.sort(Comparator.comparingInt(auctionState -> auctionState.id));
+        return sortedAuctions;
+    }
+
+    /**
+     * Gets the copies of the finished auctions.
+     *
+     * @return the copies of the finished auctions
+     */
+    Collection< AuctionState > getFinishedAuctions() {
+        return finishedAuctions.values();
+    }
+
+    /**
+     * The type Client state.
+     * <p>
+     * Class that describes the copy of a client's statistics. The other details of a client never change, so they are
+     * read from the client itself.
+     */
+    static final class ClientState {
+        /**
+         * The client.
+         */
+        final Client client;
+        /**
+         * The client's number of participations in an auction.
+         */
+        final int noParticipations;
+        /**
+         * The number of auctions the client has won.
+         */
+        final int noWonAuctions;
+
+        /**
+         * Instantiates a new Client State.
+         *
+         * @param client the client
+         */
+        private ClientState(Client client) {
+            this.client = client;
+            this.noParticipations = client.getNoParticipations();
+            this.noWonAuctions = client.getNoWonAuctions();
+        }
+    }
+
+    /**
+     * The type Product state.
+     * <p>
+     * Class that describes the copy of a product's selling price. The other details of a product never change, so
+     * they are read from the product itself.
+     */
+    static final class ProductState {
+        /**
+         * The product.
+         */
+        final Product product;
+        /**
+         * The product's selling price.
+         */
+        final double sellingPrice;
+
+        /**
+         * Instantiates a new Product State.
+         *
+         * @param product the product
+         */
+        private ProductState(Product product) {
+            this.product = product;
+            this.sellingPrice = product.getSellingPrice();
+        }
+    }
+
+    /**
+     * The type Broker state.
+     * <p>
+     * Class that describes the copy of a broker's earnings. His clients' offers are copied with their auctions.
+     */
+    static final class BrokerState {
+        /**
+         * The broker's id.
+         */
+        final int id;
+        /**
+         * The broker's earnings.
+         */
+        final double earnings;
+
+        /**
+         * Instantiates a new Broker State.
+         *
+         * @param broker the broker
+         */
+        private BrokerState(Broker broker) {
+            this.id = broker.getId();
+            this.earnings = broker.getEarnings();
+        }
+    }
+
+    /**
+     * The type Auction state.
+     * <p>
+     * Class that describes the copy of an auction with the offers of its participants, in the order in which they
+     * have signed up.
+     */
+    static final class AuctionState {
+        /**
+         * The auction's id.
+         */
+        final int id;
+        /**
+         * The minimum number of participants that the auction requires in order to start.
+         */
+        final int noParticipants;
+        /**
+         * The current number of participants.
+         */
+        final int currentNoParticipants;
+        /**
+         * The auctioned product's id.
+         */
+        final int productId;
+        /**
+         * The number of steps in which the auction is supposed to happen.
+         */
+        final int maxNoSteps;
+        /**
+         * The mode in which the auction's outcome is computed.
+         */
+        final AuctionMode mode;
+        /**
+         * The journal sequence of the command that has started the auction, -1 if it wasn't journaled.
+         */
+        final long startSequence;
+        /**
+         * Whether the auction was running or not.
+         */
+        final boolean inProgress;
+        /**
+         * The ids of the participants.
+         */
+        final int[] clientIds;
+        /**
+         * The ids of the participants' brokers.
+         */
+        final int[] brokerIds;
+        /**
+         * The maximum prices offered by the participants.
+         */
+        final double[] maxPrices;
+
+        /**
+         * Instantiates a new Auction State.
+         *
+         * @param auction    the auction
+         * @param inProgress whether the auction is running or not
+         */
+        private AuctionState(Auction auction, boolean inProgress) {
+            this.id = auction.getId();
+            this.noParticipants = auction.getNoParticipants();
+            this.currentNoParticipants = auction.getCurrentNoParticipants();
+            this.productId = auction.getProductId();
+            this.maxNoSteps = auction.getMaxNoSteps();
+            this.mode = auction.getMode();
+            this.startSequence = auction.getStartSequence();
+            this.inProgress = inProgress;
+
+            OfferBook offerBook = auction.getOfferBook();
+            this.clientIds = new int[offerBook.size()];
+            this.brokerIds = new int[offerBook.size()];
+            this.maxPrices = new double[offerBook.size()];
+            for (int signUpIndex = 0; signUpIndex < offerBook.size(); signUpIndex++) {
+                int row = offerBook.getRow(signUpIndex);
+                clientIds[signUpIndex] = offerBook.getClient(row).getId();
+                brokerIds[signUpIndex] = offerBook.getBrokers().get(offerBook.getBrokerSlot(row)).getId();
+                maxPrices[signUpIndex] = offerBook.getMaxPrice(row);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.Persistence.SnapshotFile;
+import AuctionHouseProject.PrintingFeature.ConsoleColors;
+import AuctionHouseProject.PrintingFeature.EventPrinter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The type Snapshotter.
+ * <p>
+ * Class that describes the behaviour of the periodic snapshots of the Auction House. After each command, the thread
+ * that executes the commands checks whether a snapshot is due. If it is, the clients, products, brokers and auctions
+ * changed since the previous snapshot are copied into the snapshot view, which takes as long as the changes, and a
+ * background thread encodes the view and writes it to the disk, while the next commands are executed. The running
+ * auctions aren't waited for: they are saved as they were when they started and they are run again when the snapshot
+ * is loaded. A snapshot that is due while the previous one is still being written is postponed until a later command.
+ */
+public class Snapshotter {
+    /**
+     * The system property used for choosing the file of the snapshots; without it no snapshot is taken.
+     */
+    public static final String FILE_PROPERTY = "auctionhouse.snapshot.file";
+    /**
+     * The system property used for choosing the time between two snapshots, in milliseconds.
+     */
+    public static final String INTERVAL_PROPERTY = "auctionhouse.snapshot.intervalMillis";
+
+    /**
+     * The Auction House whose state is saved.
+     */
+    private final AuctionHouse auctionHouse;
+    /**
+     * The file of the snapshots.
+     */
+    private final Path file;
+    /**
+     * The time between two snapshots, in nanoseconds.
+     */
+    private final long intervalNanos;
+    /**
+     * The time when the last snapshot was taken.
+     */
+    private long lastSnapshotTime;
+    /**
+     * The view of the state that the snapshots are encoded from.
+     */
+    private final SnapshotView view = new SnapshotView();
+    /**
+     * The thread that encodes and writes the snapshots.
+     */
+    private final ExecutorService writer;
+    /**
+     * Whether a snapshot is being written or not.
+     */
+    private final AtomicBoolean writing = new AtomicBoolean(false);
+
+    /**
+     * Instantiates a new Snapshotter.
+     *
+     * @param auctionHouse   the auction house whose state is saved
+     * @param file           the file of the snapshots
+     * @param intervalMillis the time between two snapshots, in milliseconds
+     */
+    public Snapshotter(AuctionHouse auctionHouse, Path file, long intervalMillis) {
+        this.auctionHouse = auctionHouse;
+        this.file = file;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.lastSnapshotTime = System.nanoTime();
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "auction-house-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Instantiates a new Snapshotter with the time between two snapshots given by the system property, by default one
+     * minute.
+     *
+     * @param auctionHouse the auction house whose state is saved
+     * @param file         the file of the snapshots
+     * @return the snapshotter
+     */
+    public static Snapshotter fromSystemProperties(AuctionHouse auctionHouse, Path file) {
+        return new Snapshotter(auctionHouse, file, Long.getLong(INTERVAL_PROPERTY, 60_000));
+    }
+
+    /**
+     * Gets the file of the snapshots.
+     *
+     * @return the file of the snapshots
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Load the last snapshot, if there is one, into the empty Auction House, then track the changes of its state for
+     * the next snapshots. The auctions that were running when the snapshot was taken are loaded, but they aren't run
+     * again yet.
+     *
+     * @return the sequence of the last journaled command that the snapshot covers, -1 if there isn't any
+     * @throws IOException if the snapshot can't be read
+     */
+    public long load() throws IOException {
+        long journalSequence = -1;
+        if (Files.exists(file)) {
+            long startTime = System.nanoTime();
+            SnapshotFile snapshot = SnapshotFile.read(file);
+            AuctionHouseSnapshot.restore(auctionHouse, snapshot.getContent());
+            journalSequence = snapshot.getJournalSequence();
+
+            System.err.printf("Snapshot %s loaded in %.3f s (%d clients, %d products, %d active auctions, %d of them " +
+                            "interrupted).%n", file, (System.nanoTime() - startTime) / 1e9,
+                    auctionHouse.getClients().size(), auctionHouse.getProducts().size(),
+                    auctionHouse.getActiveAuctions().size(), auctionHouse.getInterruptedAuctions().size());
+        }
+
+        // The first snapshot copies the whole state, the next ones only what has changed since the previous one.
+        auctionHouse.trackChanges(view);
+        return journalSequence;
+    }
+
+    /**
+     * Take a snapshot if one is due. It is called by the thread that executes the commands, after each command.
+     *
+     * @param commandSequence the journal sequence of the last executed command, -1 if it wasn't journaled
+     */
+    public void afterCommand(long commandSequence) {
+        if (System.nanoTime() - lastSnapshotTime < intervalNanos || writing.get()) {
+            return;
+        }
+
+        // The view isn't being encoded, so the changes are copied into it, then the commands go on while it is written.
+        view.update(auctionHouse);
+        lastSnapshotTime = System.nanoTime();
+
+        writing.set(true);
+        writer.execute(() -> {
+            try {
+                SnapshotFile.write(file, commandSequence, AuctionHouseSnapshot.encode(view));
+            } catch (IOException e) {
+                EventPrinter.getInstance().print(ConsoleColors.RED_BOLD, "The snapshot couldn't be written to " +
+                        file + ": " + e.getMessage());
+            } finally {
+                writing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Wait for the snapshot being written, take a last one and stop the writer thread. It must be called after the
+     * auctions and the background operations have ended.
+     *
+     * @param commandSequence the journal sequence of the last executed command, -1 if it wasn't journaled
+     * @throws IOException          if the last snapshot can't be written
+     * @throws InterruptedException if the thread was interrupted while waiting for the snapshot being written
+     */
+    public void close(long commandSequence) throws IOException, InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(1, TimeUnit.MINUTES);
+
+        view.update(auctionHouse);
+        SnapshotFile.write(file, commandSequence, AuctionHouseSnapshot.encode(view));
+    }
+}
@@ -0,0 +1,146 @@
+package AuctionHouseProject.AuctionSystem;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The type Task executor.
+ * <p>
+ * Class that describes the behaviour of the executor shared by the people of the Auction House for the operations
+ * that they run in the background: adding products and listing them. Each operation returns a future, so the callers
+ * that need its result wait for it and the others continue immediately. The operations are run by a fixed number of
+ * threads and the ones submitted while all the threads are busy wait in a queue. When it is not asynchronous the
+ * operations are run on the thread that submits them.
+ * <p>
+ * The sold products aren't removed through this executor: the broker of the winner removes the product right away, on
+ * the thread of the auction, before the auction ends. Removing it is only a change of the concurrent catalogue, so it
+ * doesn't need a thread of its own, and the requests that come after the auction's ending never find the sold
+ * product.
+ */
+public class TaskExecutor {
+    /**
+     * The system property used for choosing whether the operations are run asynchronously or not.
+     */
+    public static final String ASYNC_PROPERTY = "auctionhouse.tasks.async";
+    /**
+     * The system property used for setting the number of threads that run the operations.
+     */
+    public static final String THREADS_PROPERTY = "auctionhouse.tasks.threads";
+
+    /**
+     * Instance of the Task Executor.
+     */
+    private static TaskExecutor instanceOfTaskExecutor = null;
+
+    /**
+     * The pool of threads that run the operations, null if they are run on the thread that submits them.
+     */
+    private final ExecutorService executor;
+    /**
+     * The number of operations that were submitted, but haven't ended yet.
+     */
+    private final AtomicInteger noPendingTasks = new AtomicInteger(0);
+
+    /**
+     * Instantiates a new Task Executor.
+     *
+     * @param async     whether the operations are run asynchronously or not
+     * @param noThreads the number of threads that run the operations, if they are run asynchronously
+     */
+    private TaskExecutor(boolean async, int noThreads) {
+        if (async) {
+            AtomicInteger threadIndex = new AtomicInteger(0);
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "auction-house-task-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            this.executor = Executors.newFixedThreadPool(Math.max(noThreads, 1), threadFactory);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Gets the instance of the Task Executor.
+     * <p>
+     * If the Task Executor hasn't been instantiated yet a new one is created, asynchronous unless the system property
+     * says otherwise, and returned, else it returns the instance of the existing Task Executor. The number of threads
+     * is given by the system property, by default four for each available processor, because most of the operations
+     * spend their time in the simulated latency.
+     *
+     * @return the instance of the Task Executor
+     */
+    public static synchronized TaskExecutor getInstance() {
+        if (instanceOfTaskExecutor == null) {
+            instanceOfTaskExecutor = new TaskExecutor(Boolean.parseBoolean(System.getProperty(ASYNC_PROPERTY,
+                    "true")), Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors() * 4));
+        }
+
+        return instanceOfTaskExecutor;
+    }
+
+    /**
+     * Submit an operation.
+     *
+     * @param task the operation
+     * @return the future that completes when the operation has ended
+     */
+    public CompletableFuture< Void > submit(Runnable task) {
+        if (executor == null) {
+            try {
+                task.run();
+                return CompletableFuture.completedFuture(null);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        noPendingTasks.incrementAndGet();
+        return CompletableFuture.runAsync(task, executor).whenComplete((result, exception) -> {
+            if (noPendingTasks.decrementAndGet() == 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the number of operations that were submitted, but haven't ended yet.
+     *
+     * @return the number of pending operations
+     */
+    public int getNoPendingTasks() {
+        return noPendingTasks.get();
+    }
+
+    /**
+     * Wait for all the submitted operations to end.
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public synchronized void awaitPendingTasks() throws InterruptedException {
+        while (noPendingTasks.get() != 0) {
+            wait();
+        }
+    }
+
+    /**
+     * Wait for all the submitted operations to end and stop the executor.
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public void shutdown() throws InterruptedException {
+        awaitPendingTasks();
+
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+}
@@ -0,0 +1,529 @@
+package AuctionHouseProject.AuctionSystem;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The type Workload generator.
+ * <p>
+ * Class that describes the behaviour of a generator of synthetic workloads for the Auction House, written in the same
+ * format as the commands from the tests. The brokers are added first, then the clients and the products, interleaved,
+ * and at last the requests for the list of products and the requests for signing up for auctions. The products for
+ * which the clients sign up follow a Zipf distribution, so a few products are much more popular than the others. The
+ * same seed always produces the same commands.
+ */
+public class WorkloadGenerator {
+    /**
+     * The size of the buffer of the output.
+     */
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    /**
+     * The names of the clients.
+     */
+    private static final String[] CLIENT_NAMES = {"Blaga Ana-Maria", "Dua Lipa", "Fallon Carrington", "Niall Horan",
+            "Bella Hadid", "Barbara Palvin", "Liam Payne", "Zayn Malik", "Albert Masca", "Louis Tomlinson",
+            "Harry Styles", "Gigi Hadid"};
+    /**
+     * The names of the products.
+     */
+    private static final String[] PRODUCT_NAMES = {"Chill", "Exclusive", "French style", "Limited Edition", "Rare",
+            "Romanian", "Unique", "Wow", "Such Wow", "Dust II"};
+    /**
+     * The types of furniture.
+     */
+    private static final String[] FURNITURE_TYPES = {"table", "side table", "dining table", "chair", "desk", "bed",
+            "wardrobe", "tv", "bathtub", "make-up table"};
+    /**
+     * The materials of the furniture.
+     */
+    private static final String[] FURNITURE_MATERIALS = {"pine", "mahogany", "oak", "walnut", "cherry", "maple",
+            "birch", "ash", "bamboo"};
+    /**
+     * The painters.
+     */
+    private static final String[] PAINTERS = {"Washington Allston", "Boris Anrep", "Nicolae Grigorescu",
+            "Claude Monet", "Frida Kahlo"};
+    /**
+     * The colors of the paintings, the names of the constants of Colors.
+     */
+    private static final String[] PAINTING_COLORS = {"oil", "tempera", "acrylic"};
+    /**
+     * The materials of the jewelry.
+     */
+    private static final String[] JEWELRY_MATERIALS = {"gold", "silver", "steel", "copper"};
+    /**
+     * The companies of the legal persons, the names of the constants of Company.
+     */
+    private static final String[] COMPANIES = {"SRL", "SA"};
+
+    /**
+     * The number of brokers.
+     */
+    private int noBrokers = 100;
+    /**
+     * The number of clients.
+     */
+    private int noClients = 10_000;
+    /**
+     * The number of products.
+     */
+    private int noProducts = 1_000;
+    /**
+     * The number of requests for signing up for an auction.
+     */
+    private long noSignUps = 100_000;
+    /**
+     * The number of requests for the list of products.
+     */
+    private long noListings = 100;
+    /**
+     * The exponent of the Zipf distribution of the sign-ups over the products, 0 for a uniform distribution.
+     */
+    private double zipfExponent = 1.0;
+    /**
+     * The weights of the furniture, the paintings and the jewelry among the products.
+     */
+    private int[] productMix = {1, 1, 1};
+    /**
+     * The share of the sign-ups that offer less than the product's minimum price.
+     */
+    private double lowOfferRatio = 0.05;
+    /**
+     * The seed of the generator.
+     */
+    private long seed = 42;
+
+    /**
+     * The random number generator.
+     */
+    private SplittableRandom random;
+    /**
+     * The minimum price of each product, in cents, indexed by the product's ID.
+     */
+    private long[] minPrices;
+    /**
+     * The buffer in which each command is built.
+     */
+    private final StringBuilder command = new StringBuilder(256);
+
+    /**
+     * The entry point of the generator.
+     * <p>
+     * The options are given as pairs of a name and a value, for example {@code --clients 1000000 --products 100000
+     * --brokers 10000 --output workload.txt}. The commands are written to the standard output, unless a file is given.
+     *
+     * @param args the options
+     * @throws IOException if the commands can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        String output = "-";
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("The option " + args[i] + " has no value.");
+                }
+
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--brokers" -> generator.setNoBrokers(Integer.parseInt(value));
+                    case "--clients" -> generator.setNoClients(Integer.parseInt(value));
+                    case "--products" -> generator.setNoProducts(Integer.parseInt(value));
+                    case "--signUps" -> generator.setNoSignUps(Long.parseLong(value));
+                    case "--listings" -> generator.setNoListings(Long.parseLong(value));
+                    case "--zipf" -> generator.setZipfExponent(Double.parseDouble(value));
+                    case "--mix" -> generator.setProductMix(Arrays.stream(value.split(","))
+                            .mapToInt(Integer::parseInt).toArray());
+                    case "--lowOffers" -> generator.setLowOfferRatio(Double.parseDouble(value));
+                    case "--seed" -> generator.setSeed(Long.parseLong(value));
+                    case "--output" -> output = value;
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: WorkloadGenerator [--brokers n] [--clients n] [--products n] [--signUps n] " +
+                    "[--listings n] [--zipf exponent] [--mix furniture,paintings,jewelry] [--lowOffers ratio] " +
+                    "[--seed n] [--output file|-]");
+            System.exit(1);
+        }
+
+        if (output.equals("-")) {
+            generator.generate(System.out);
+            System.out.flush();
+        } else {
+            try (OutputStream out = Files.newOutputStream(Path.of(output))) {
+                generator.generate(out);
+            }
+        }
+    }
+
+    /**
+     * Write the commands of the workload to a stream. The stream isn't closed.
+     *
+     * @param out the stream
+     * @throws IOException if the commands can't be written
+     */
+    public void generate(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        random = new SplittableRandom(seed);
+        minPrices = new long[noProducts + 1];
+
+        if (noBrokers > 0) {
+            command.setLength(0);
+            command.append("addBrokers ").append(noBrokers);
+            writeCommand(writer);
+        }
+
+        // The clients and the products are added in the same proportion from the beginning to the end.
+        long noAddedClients = 0;
+        long noAddedProducts = 0;
+        while (noAddedClients < noClients || noAddedProducts < noProducts) {
+            if (noAddedProducts * noClients < noAddedClients * noProducts || noAddedClients == noClients) {
+                addProduct(writer, (int) ++noAddedProducts);
+            } else {
+                addClient(writer, ++noAddedClients);
+            }
+        }
+
+        if (noClients > 0 && noProducts > 0) {
+            generateRequests(writer);
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * Write the requests for the list of products and the requests for signing up for auctions, interleaved.
+     *
+     * @param writer the writer of the commands
+     * @throws IOException if the commands can't be written
+     */
+    private void generateRequests(Writer writer) throws IOException {
+        ZipfSampler popularity = new ZipfSampler(noProducts, zipfExponent, random);
+
+        long noSignUpsLeft = noSignUps;
+        long noListingsLeft = noListings;
+        while (noSignUpsLeft > 0 || noListingsLeft > 0) {
+            command.setLength(0);
+
+            if (random.nextLong(noSignUpsLeft + noListingsLeft) < noListingsLeft) {
+                command.append("listProducts ").append(1 + random.nextInt(noClients));
+                noListingsLeft--;
+            } else {
+                int productId = popularity.sample(random);
+                long minPrice = minPrices[productId];
+                long price = random.nextDouble() < lowOfferRatio
+                        ? random.nextLong(Math.max(minPrice, 1))
+                        : minPrice + random.nextLong(minPrice / 2 + 1);
+
+                command.append("requestSignUpForAuction ").append(1 + random.nextInt(noClients)).append(' ')
+                        .append(productId).append(' ');
+                appendPrice(price);
+                noSignUpsLeft--;
+            }
+
+            writeCommand(writer);
+        }
+    }
+
+    /**
+     * Write a command that adds a client.
+     *
+     * @param writer   the writer of the commands
+     * @param clientNo the number of the client
+     * @throws IOException if the command can't be written
+     */
+    private void addClient(Writer writer, long clientNo) throws IOException {
+        String name = pick(CLIENT_NAMES);
+        boolean naturalPerson = random.nextBoolean();
+
+        command.setLength(0);
+        command.append("addClient ").append(naturalPerson ? "NaturalPerson" : "LegalPerson").append(" \"")
+                .append(name).append("\" ");
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != ' ') {
+                command.append(name.charAt(i));
+            }
+        }
+        command.append(clientNo).append("@gmail.com ");
+
+        if (naturalPerson) {
+            appendTwoDigits(1 + random.nextInt(28));
+            command.append('/');
+            appendTwoDigits(1 + random.nextInt(12));
+            command.append('/').append(1940 + random.nextInt(65));
+        } else {
+            command.append(pick(COMPANIES)).append(' ');
+            appendPrice(100_000 + random.nextLong(10_000_000));
+        }
+
+        writeCommand(writer);
+    }
+
+    /**
+     * Write a command that adds a product.
+     *
+     * @param writer    the writer of the commands
+     * @param productId the ID the product gets when it is added
+     * @throws IOException if the command can't be written
+     */
+    private void addProduct(Writer writer, int productId) throws IOException {
+        long minPrice = 100 + random.nextLong(10_000);
+        minPrices[productId] = minPrice;
+
+        int productType = random.nextInt(productMix[0] + productMix[1] + productMix[2]);
+
+        command.setLength(0);
+        command.append("addProduct ");
+        if (productType < productMix[0]) {
+            command.append("Furniture");
+        } else if (productType < productMix[0] + productMix[1]) {
+            command.append("Painting");
+        } else {
+            command.append("Jewelry");
+        }
+        command.append(" \"").append(pick(PRODUCT_NAMES)).append("\" ").append(1000 + random.nextInt(1020))
+                .append(' ');
+        appendPrice(minPrice);
+
+        if (productType < productMix[0]) {
+            command.append(" \"").append(pick(FURNITURE_TYPES)).append("\" ").append(pick(FURNITURE_MATERIALS));
+        } else if (productType < productMix[0] + productMix[1]) {
+            command.append(" \"").append(pick(PAINTERS)).append("\" ").append(pick(PAINTING_COLORS));
+        } else {
+            command.append(" \"").append(pick(JEWELRY_MATERIALS)).append("\" ").append(random.nextBoolean());
+        }
+
+        // The maximum number of steps and the minimum number of participants of the auction.
+        command.append(' ').append(2 + random.nextInt(29)).append(' ').append(2 + random.nextInt(9));
+
+        writeCommand(writer);
+    }
+
+    /**
+     * Pick one of the values at random.
+     *
+     * @param values the values
+     * @return the value
+     */
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Append a price, given in cents, with two decimals.
+     *
+     * @param cents the price, in cents
+     */
+    private void appendPrice(long cents) {
+        command.append(cents / 100).append('.');
+        appendTwoDigits((int) (cents % 100));
+    }
+
+    /**
+     * Append a number lower than 100 with two digits.
+     *
+     * @param number the number
+     */
+    private void appendTwoDigits(int number) {
+        command.append((char) ('0' + number / 10)).append((char) ('0' + number % 10));
+    }
+
+    /**
+     * Write the command that was built and end the line.
+     *
+     * @param writer the writer of the commands
+     * @throws IOException if the command can't be written
+     */
+    private void writeCommand(Writer writer) throws IOException {
+        command.append('\n');
+        writer.append(command);
+    }
+
+    /**
+     * Sets the number of brokers.
+     *
+     * @param noBrokers the number of brokers
+     */
+    public void setNoBrokers(int noBrokers) {
+        this.noBrokers = requireNotNegative(noBrokers, "brokers");
+    }
+
+    /**
+     * Sets the number of clients.
+     *
+     * @param noClients the number of clients
+     */
+    public void setNoClients(int noClients) {
+        this.noClients = requireNotNegative(noClients, "clients");
+    }
+
+    /**
+     * Sets the number of products.
+     *
+     * @param noProducts the number of products
+     */
+    public void setNoProducts(int noProducts) {
+        this.noProducts = requireNotNegative(noProducts, "products");
+    }
+
+    /**
+     * Sets the number of requests for signing up for an auction.
+     *
+     * @param noSignUps the number of requests for signing up for an auction
+     */
+    public void setNoSignUps(long noSignUps) {
+        this.noSignUps = requireNotNegative(noSignUps, "sign-ups");
+    }
+
+    /**
+     * Sets the number of requests for the list of products.
+     *
+     * @param noListings the number of requests for the list of products
+     */
+    public void setNoListings(long noListings) {
+        this.noListings = requireNotNegative(noListings, "listings");
+    }
+
+    /**
+     * Sets the exponent of the Zipf distribution of the sign-ups over the products.
+     *
+     * @param zipfExponent the exponent, 0 for a uniform distribution
+     */
+    public void setZipfExponent(double zipfExponent) {
+        if (zipfExponent < 0) {
+            throw new IllegalArgumentException("The exponent of the Zipf distribution can't be negative.");
+        }
+        this.zipfExponent = zipfExponent;
+    }
+
+    /**
+     * Sets the weights of the furniture, the paintings and the jewelry among the products.
+     *
+     * @param productMix the weights of the furniture, the paintings and the jewelry
+     */
+    public void setProductMix(int[] productMix) {
+        if (productMix.length != 3 || Arrays.stream(productMix).anyMatch(weight -> weight < 0) ||
+                Arrays.stream(productMix).sum() == 0) {
+            throw new IllegalArgumentException("The product mix needs three weights, which can't be negative and " +
+                    "can't all be 0.");
+        }
+        this.productMix = productMix.clone();
+    }
+
+    /**
+     * Sets the share of the sign-ups that offer less than the product's minimum price.
+     *
+     * @param lowOfferRatio the share, between 0 and 1
+     */
+    public void setLowOfferRatio(double lowOfferRatio) {
+        if (lowOfferRatio < 0 || lowOfferRatio > 1) {
+            throw new IllegalArgumentException("The share of the low offers must be between 0 and 1.");
+        }
+        this.lowOfferRatio = lowOfferRatio;
+    }
+
+    /**
+     * Sets the seed of the generator.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Check that a count isn't negative.
+     *
+     * @param count the count
+     * @param name  what is counted
+     * @return the count
+     */
+    private static int requireNotNegative(int count, String name) {
+        return (int) requireNotNegative((long) count, name);
+    }
+
+    /**
+     * Check that a count isn't negative.
+     *
+     * @param count the count
+     * @param name  what is counted
+     * @return the count
+     */
+    private static long requireNotNegative(long count, String name) {
+        if (count < 0) {
+            throw new IllegalArgumentException("The number of " + name + " can't be negative.");
+        }
+        return count;
+    }
+
+    /**
+     * The type Zipf sampler.
+     * <p>
+     * Class that describes the behaviour of a sampler of product IDs following a Zipf distribution. The popularity
+     * ranks are given to the products in a random order, so the popular products are spread over the catalogue.
+     */
+    private static class ZipfSampler {
+        /**
+         * The cumulative probability of each popularity rank.
+         */
+        private final double[] cumulativeProbabilities;
+        /**
+         * The product ID that has each popularity rank.
+         */
+        private final int[] productIds;
+
+        /**
+         * Instantiates a new Zipf Sampler.
+         *
+         * @param noProducts the number of products
+         * @param exponent   the exponent of the distribution
+         * @param random     the random number generator used for giving the ranks to the products
+         */
+        ZipfSampler(int noProducts, double exponent, SplittableRandom random) {
+            cumulativeProbabilities = new double[noProducts];
+            productIds = new int[noProducts];
+
+            double sum = 0;
+            for (int rank = 0; rank < noProducts; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulativeProbabilities[rank] = sum;
+                productIds[rank] = rank + 1;
+            }
+            for (int rank = 0; rank < noProducts; rank++) {
+                cumulativeProbabilities[rank] /= sum;
+            }
+
+            for (int rank = noProducts - 1; rank > 0; rank--) {
+                int otherRank = random.nextInt(rank + 1);
+                int productId = productIds[rank];
+                productIds[rank] = productIds[otherRank];
+                productIds[otherRank] = productId;
+            }
+        }
+
+        /**
+         * Sample a product ID.
+         *
+         * @param random the random number generator
+         * @return the product ID
+         */
+        int sample(SplittableRandom random) {
+            int rank = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble());
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            return productIds[Math.min(rank, productIds.length - 1)];
+        }
+    }
+}
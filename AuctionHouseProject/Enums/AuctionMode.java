@@ -0,0 +1,16 @@
+package AuctionHouseProject.Enums;
+
+/**
+ * The enum Auction mode. Used for choosing how the outcome of an auction is computed.
+ */
+public enum AuctionMode {
+    /**
+     * The auction is simulated step by step, the brokers asking their clients for new offers at each step.
+     */
+    stepped,
+    /**
+     * The auction is resolved in a single pass by proxy bidding: every client bids up to his maximum price, the
+     * highest maximum price wins and the winner pays the second highest maximum price.
+     */
+    proxy
+}
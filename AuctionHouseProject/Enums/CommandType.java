@@ -0,0 +1,27 @@
+package AuctionHouseProject.Enums;
+
+/**
+ * The enum Command type. Used for describing the type of a command/request sent to the Auction House.
+ */
+public enum CommandType {
+    /**
+     * Request for adding brokers to the Auction System.
+     */
+    addBrokers,
+    /**
+     * Request for signing up a new client into the Auction System.
+     */
+    addClient,
+    /**
+     * Request for adding a new product to the Auction House.
+     */
+    addProduct,
+    /**
+     * Request for printing the products available for auction.
+     */
+    listProducts,
+    /**
+     * Request for signing up for an auction.
+     */
+    requestSignUpForAuction
+}
@@ -0,0 +1,202 @@
+package AuctionHouseProject.Metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Latency histogram.
+ * <p>
+ * Class that describes the behaviour of a histogram of durations, in nanoseconds. The durations are counted in
+ * log-linear buckets: every power of two is split into 8 buckets of the same width, so any percentile is known within
+ * 12.5% while the histogram has a fixed size. The counts are striped by thread, so the threads that record durations at
+ * the same time rarely write the same memory.
+ */
+public class LatencyHistogram {
+    /**
+     * The number of bits of a duration that choose the bucket inside its power of two.
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+    /**
+     * The number of buckets inside a power of two.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * The number of buckets needed for all the durations.
+     */
+    static final int NO_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    /**
+     * The number of stripes of the counts, a power of two.
+     */
+    private static final int NO_STRIPES = Integer.highestOneBit(Math.min(64,
+            Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    /**
+     * The counts of the buckets, one row of buckets for each stripe.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(NO_STRIPES * NO_BUCKETS);
+    /**
+     * The sum of the recorded durations.
+     */
+    private final LongAdder sum = new LongAdder();
+    /**
+     * The longest recorded duration.
+     */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos the duration, in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        int stripe = (int) Thread.currentThread().getId() & (NO_STRIPES - 1);
+        counts.getAndIncrement(stripe * NO_BUCKETS + bucketIndex(nanos));
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Take a snapshot of the histogram. The durations recorded while the snapshot is taken may be partly left out.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] bucketCounts = new long[NO_BUCKETS];
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long bucketCount = counts.get(i);
+            bucketCounts[i % NO_BUCKETS] += bucketCount;
+            count += bucketCount;
+        }
+
+        return new Snapshot(bucketCounts, count, sum.sum(), max.get());
+    }
+
+    /**
+     * Gets the index of the bucket of a duration.
+     *
+     * @param value the duration, not negative
+     * @return the index of the bucket
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Gets the longest duration counted in a bucket.
+     *
+     * @param index the index of the bucket
+     * @return the longest duration of the bucket
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        long lowerBound = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * The type Snapshot.
+     * <p>
+     * Class that describes the counts of a histogram at a moment, from which the percentiles are computed.
+     */
+    public static final class Snapshot {
+        /**
+         * The counts of the buckets.
+         */
+        private final long[] bucketCounts;
+        /**
+         * The number of recorded durations.
+         */
+        private final long count;
+        /**
+         * The sum of the recorded durations.
+         */
+        private final long sum;
+        /**
+         * The longest recorded duration.
+         */
+        private final long max;
+
+        /**
+         * Instantiates a new Snapshot.
+         *
+         * @param bucketCounts the counts of the buckets
+         * @param count        the number of recorded durations
+         * @param sum          the sum of the recorded durations
+         * @param max          the longest recorded duration
+         */
+        private Snapshot(long[] bucketCounts, long count, long sum, long max) {
+            this.bucketCounts = bucketCounts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Gets the number of recorded durations.
+         *
+         * @return the number of recorded durations
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the mean of the recorded durations.
+         *
+         * @return the mean duration, in nanoseconds, 0 if none was recorded
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Gets the longest recorded duration.
+         *
+         * @return the longest duration, in nanoseconds
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Gets a percentile of the recorded durations, as the upper bound of the bucket where it falls, but never
+         * more than the longest recorded duration.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the duration, in nanoseconds, 0 if none was recorded
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+
+            return max;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package AuctionHouseProject.Metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Metrics registry.
+ * <p>
+ * Class that describes the behaviour of the registry of the Auction House's metrics: counters, which are striped so the
+ * threads that update them at the same time don't contend, and latency histograms. The metrics are created the first
+ * time they are asked for, by name, and the instrumented code keeps them in fields, so updating a metric never looks it
+ * up. The metrics can be queried by name, reported as text and dumped to a file periodically. It also has an instance
+ * of its own type.
+ */
+public class MetricsRegistry {
+    /**
+     * The system property used for choosing the file where the metrics are dumped; without it they aren't dumped.
+     */
+    public static final String FILE_PROPERTY = "auctionhouse.metrics.file";
+    /**
+     * The system property used for setting the number of milliseconds between two dumps of the metrics.
+     */
+    public static final String INTERVAL_PROPERTY = "auctionhouse.metrics.intervalMillis";
+    /**
+     * The system property used for sampling the latencies of the commands: 1 times all of them and n times one in n of
+     * them. The commands are counted all the same.
+     */
+    public static final String COMMAND_SAMPLING_PROPERTY = "auctionhouse.metrics.commandSampling";
+
+    /**
+     * Instance of the Metrics Registry.
+     */
+    private static MetricsRegistry instanceOfMetricsRegistry = null;
+
+    /**
+     * The counters, sorted by their name.
+     */
+    private final ConcurrentMap< String, LongAdder > counters = new ConcurrentSkipListMap<>();
+    /**
+     * The latency histograms, sorted by their name.
+     */
+    private final ConcurrentMap< String, LatencyHistogram > histograms = new ConcurrentSkipListMap<>();
+    /**
+     * The thread that dumps the metrics periodically, null if they aren't dumped.
+     */
+    private ScheduledExecutorService dumper = null;
+    /**
+     * The file where the metrics are dumped, null if they aren't dumped.
+     */
+    private Path dumpFile = null;
+
+    /**
+     * Instantiates a new Metrics Registry.
+     */
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Gets instance of the Metrics Registry.
+     *
+     * @return the instance of the Metrics Registry
+     */
+    public static synchronized MetricsRegistry getInstance() {
+        if (instanceOfMetricsRegistry == null) {
+            instanceOfMetricsRegistry = new MetricsRegistry();
+        }
+
+        return instanceOfMetricsRegistry;
+    }
+
+    /**
+     * Gets a counter, creating it if it doesn't exist.
+     *
+     * @param name the counter's name
+     * @return the counter
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Gets a latency histogram, creating it if it doesn't exist.
+     *
+     * @param name the histogram's name
+     * @return the histogram
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Gets the value of a counter.
+     *
+     * @param name the counter's name
+     * @return the counter's value, 0 if there is no counter with this name
+     */
+    public long getCount(String name) {
+        LongAdder counter = counters.get(name);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    /**
+     * Gets a snapshot of a latency histogram.
+     *
+     * @param name the histogram's name
+     * @return the snapshot of the histogram, null if there is no histogram with this name
+     */
+    public LatencyHistogram.Snapshot getHistogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        return histogram != null ? histogram.snapshot() : null;
+    }
+
+    /**
+     * Report all the metrics as text, one metric on each line, sorted by their name. The durations are given in
+     * microseconds.
+     *
+     * @return the report
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append("# metrics at ").append(Instant.now()).append(System.lineSeparator());
+
+        for (Map.Entry< String, LongAdder > counter : counters.entrySet()) {
+            report.append(String.format(Locale.ROOT, "counter %s %d%n", counter.getKey(), counter.getValue().sum()));
+        }
+
+        for (Map.Entry< String, LatencyHistogram > histogram : histograms.entrySet()) {
+            LatencyHistogram.Snapshot snapshot = histogram.getValue().snapshot();
+            report.append(String.format(Locale.ROOT, "histogram %s count=%d mean=%.3fus p50=%.3fus p99=%.3fus " +
+                            "p999=%.3fus max=%.3fus%n", histogram.getKey(), snapshot.getCount(),
+                    snapshot.getMean() / 1e3, snapshot.getPercentile(50) / 1e3, snapshot.getPercentile(99) / 1e3,
+                    snapshot.getPercentile(99.9) / 1e3, snapshot.getMax() / 1e3));
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * Dump the report of the metrics to a file, replacing the previous dump.
+     *
+     * @param file the file
+     * @throws IOException if the file can't be written
+     */
+    public void dump(Path file) throws IOException {
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temporaryFile, report(), StandardCharsets.UTF_8);
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Dump the metrics to the file chosen by the system property periodically, by default every 10 seconds. Nothing
+     * happens if the file isn't chosen.
+     */
+    public void startPeriodicDumpFromSystemProperties() {
+        String file = System.getProperty(FILE_PROPERTY);
+        if (file != null) {
+            startPeriodicDump(Path.of(file), Long.getLong(INTERVAL_PROPERTY, 10000));
+        }
+    }
+
+    /**
+     * Dump the metrics to a file periodically, on a background thread.
+     *
+     * @param file           the file
+     * @param intervalMillis the number of milliseconds between two dumps
+     */
+    public synchronized void startPeriodicDump(Path file, long intervalMillis) {
+        stopPeriodicDump();
+
+        dumpFile = file;
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-dumper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleWithFixedDelay(() -> {
+            try {
+                dump(file);
+            } catch (IOException e) {
+                System.err.println("The metrics couldn't be dumped to " + file + ": " + e + ".");
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop dumping the metrics periodically, after a last dump. Nothing happens if they aren't dumped.
+     */
+    public synchronized void stopPeriodicDump() {
+        if (dumper == null) {
+            return;
+        }
+
+        dumper.shutdownNow();
+        try {
+            dumper.awaitTermination(1, TimeUnit.MINUTES);
+            dump(dumpFile);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException("The metrics couldn't be dumped to " + dumpFile + ".", e);
+        } finally {
+            dumper = null;
+            dumpFile = null;
+        }
+    }
+}
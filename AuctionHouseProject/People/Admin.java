@@ -1,8 +1,13 @@
 package AuctionHouseProject.People;
 
 import AuctionHouseProject.AuctionSystem.AuctionHouse;
+import AuctionHouseProject.AuctionSystem.LatencyPolicy;
+import AuctionHouseProject.AuctionSystem.TaskExecutor;
+import AuctionHouseProject.Enums.AuctionMode;
 import AuctionHouseProject.Products.Product;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * The type Admin.
  * <p>
@@ -43,19 +48,46 @@ public class Admin extends Employee {
 
     /**
      * Add a product to the auction house.
+     * <p>
+     * The product is added in the background, the returned future completes once it is available for auction, without
+     * waiting for the simulated latency that follows.
      *
      * @param product                     the product
      * @param maxNoStepsForAuction        the maximum number of steps for the auction
      * @param minNoParticipantsForAuction the minimum number of participants for the auction
+     * @return the future that completes when the product has been added
      */
-    public void addProductToAuctionHouse(Product product, int maxNoStepsForAuction,
-                                         int minNoParticipantsForAuction) {
-        Thread adminThread = new Thread(new RunnableAdmin(product, maxNoStepsForAuction,
-                minNoParticipantsForAuction));
+    public CompletableFuture< Void > addProductToAuctionHouse(Product product, int maxNoStepsForAuction,
+                                                              int minNoParticipantsForAuction) {
+        return addProductToAuctionHouse(product, maxNoStepsForAuction, minNoParticipantsForAuction, null);
+    }
 
-        adminThread.start();
-        while (adminThread.isAlive()) {
-        }
+    /**
+     * Add a product to the auction house, with a given mode for its auction.
+     * <p>
+     * The product is added in the background, the returned future completes once it is available for auction, without
+     * waiting for the simulated latency that follows.
+     *
+     * @param product                     the product
+     * @param maxNoStepsForAuction        the maximum number of steps for the auction
+     * @param minNoParticipantsForAuction the minimum number of participants for the auction
+     * @param auctionMode                 the mode of the auction, null for the auction house's default mode
+     * @return the future that completes when the product has been added
+     */
+    public CompletableFuture< Void > addProductToAuctionHouse(Product product, int maxNoStepsForAuction,
+                                                              int minNoParticipantsForAuction,
+                                                              AuctionMode auctionMode) {
+        RunnableAdmin task = new RunnableAdmin(product, maxNoStepsForAuction, minNoParticipantsForAuction,
+                auctionMode);
+
+        // The task itself may fail before the product is added, for instance if it is rejected by the executor.
+        TaskExecutor.getInstance().submit(task).whenComplete((result, exception) -> {
+            if (exception != null) {
+                task.added.completeExceptionally(exception);
+            }
+        });
+
+        return task.added;
     }
 
     /**
@@ -74,6 +106,14 @@ public class Admin extends Employee {
          * The minimum number of participants for the auction.
          */
         int minNoParticipantsForAuction;
+        /**
+         * The mode of the auction, null for the auction house's default mode.
+         */
+        AuctionMode auctionMode;
+        /**
+         * The future that completes when the product has been added, before the simulated latency.
+         */
+        final CompletableFuture< Void > added = new CompletableFuture<>();
 
         /**
          * Instantiates a new Runnable admin.
@@ -81,11 +121,14 @@ public class Admin extends Employee {
          * @param product                     the product
          * @param maxNoStepsForAuction        the maximum number of steps for the auction
          * @param minNoParticipantsForAuction the minimum number of participants for the auction
+         * @param auctionMode                 the mode of the auction, null for the auction house's default mode
          */
-        public RunnableAdmin(Product product, int maxNoStepsForAuction, int minNoParticipantsForAuction) {
+        public RunnableAdmin(Product product, int maxNoStepsForAuction, int minNoParticipantsForAuction,
+                             AuctionMode auctionMode) {
             this.product = product;
             this.maxNoStepsForAuction = maxNoStepsForAuction;
             this.minNoParticipantsForAuction = minNoParticipantsForAuction;
+            this.auctionMode = auctionMode;
         }
 
         /**
@@ -93,13 +136,13 @@ public class Admin extends Employee {
          */
         @Override
         public void run() {
-            synchronized (AuctionHouse.getInstance().getProducts()) {
-                AuctionHouse.getInstance().addProduct(product, maxNoStepsForAuction, minNoParticipantsForAuction);
+            AuctionHouse.getInstance().addProduct(product, maxNoStepsForAuction, minNoParticipantsForAuction,
+                    auctionMode);
+            added.complete(null);
 
-                try {
-                    Thread.sleep((int) (Math.random() * 1000));
-                } catch (InterruptedException ignored) {
-                }
+            try {
+                LatencyPolicy.getInstance().pause();
+            } catch (InterruptedException ignored) {
             }
         }
     }
@@ -3,31 +3,38 @@ package AuctionHouseProject.People;
 import AuctionHouseProject.AuctionSystem.Auction;
 import AuctionHouseProject.AuctionSystem.AuctionHouse;
 import AuctionHouseProject.AuctionSystem.Offer;
+import AuctionHouseProject.AuctionSystem.OfferBook;
 import AuctionHouseProject.DataStructures.Pair;
 import AuctionHouseProject.Products.Product;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The type Broker.
  * <p>
- * Class that describes the behaviour of a broker that is employed by an Auction House. It is characterized by a list
- * of clients and his extra earnings from his clients that win auctions. He is "the middle man" between the Auction
- * House and the Clients.
+ * Class that describes the behaviour of a broker that is employed by an Auction House. It is characterized by the
+ * auctions in which he represents clients and his extra earnings from his clients that win auctions. He is "the middle
+ * man" between the Auction House and the Clients. The clients' offers are kept in the auctions' offer books.
  */
 public class Broker extends Employee {
     /**
-     * Revolutionary List of Clients that also stores the auctions that the clients have enrolled using the current
-     * broker and their offers for each one of them.
+     * The auctions in which the broker represents clients.
      */
-    private Map< Client, List< Pair< Auction, Offer > > > clients;
+    private final Set< Auction > auctions;
     /**
      * The brokers earnings for winning auctions for his clients.
      */
     private double earnings;
+    /**
+     * The number of clients that the broker represents in the auctions that haven't started yet. It is only changed
+     * while holding the broker's monitor, but it may be read without it.
+     */
+    private volatile int noActiveSignUps;
 
     /**
      * Instantiates a new Broker.
@@ -35,25 +42,32 @@ public class Broker extends Employee {
     public Broker() {
         super();
         this.earnings = 0;
-        this.clients = new HashMap<>();
+        this.auctions = new LinkedHashSet<>();
     }
 
     /**
-     * Gets the broker's client list.
+     * Gets the broker's client list: the clients, the auctions that they have enrolled using the current broker and
+     * their offers for each one of them. The list is built from the auctions' offer books, so it is only a view of the
+     * offers at the time of the call.
      *
      * @return the broker's client list
      */
-    public Map< Client, List< Pair< Auction, Offer > > > getClientList() {
-        return clients;
-    }
+    public synchronized Map< Client, List< Pair< Auction, Offer > > > getClientList() {
+        Map< Client, List< Pair< Auction, Offer > > > clients = new LinkedHashMap<>();
 
-    /**
-     * Sets the broker's client list.
-     *
-     * @param clients the broker's client list
-     */
-    public void setClients(Map< Client, List< Pair< Auction, Offer > > > clients) {
-        this.clients = clients;
+        for (Auction auction : auctions) {
+            OfferBook offerBook = auction.getOfferBook();
+            int brokerSlot = offerBook.getBrokerSlot(this);
+
+            for (int row = 0; row < offerBook.size(); row++) {
+                if (offerBook.getBrokerSlot(row) == brokerSlot) {
+                    clients.computeIfAbsent(offerBook.getClient(row), client -> new ArrayList<>())
+                            .add(new Pair<>(auction, offerBook.getOffer(row)));
+                }
+            }
+        }
+
+        return clients;
     }
 
     /**
@@ -74,6 +88,16 @@ public class Broker extends Employee {
         this.earnings = earnings;
     }
 
+    /**
+     * Gets the number of clients that the broker represents in the auctions that haven't started yet, which is the
+     * broker's load.
+     *
+     * @return the number of active sign-ups
+     */
+    public int getNoActiveSignUps() {
+        return noActiveSignUps;
+    }
+
     /**
      * Add client to the broker's clients list.
      *
@@ -81,25 +105,20 @@ public class Broker extends Employee {
      * @param auction      the auction that he signed up for
      * @param offeredPrice the maximum price he is able to pay for the product
      */
-    public void addClient(Client client, Auction auction, double offeredPrice) {
-        // If the client is already in the broker's client list only add the new auction to the client's list of
-        // auctions, else first add the client, then the auction.
-        if (clients.containsKey(client)) {
-            clients.get(client).add(new Pair<>(auction, new Offer(offeredPrice)));
-        } else {
-            ArrayList< Pair< Auction, Offer > > auctions = new ArrayList<>();
-            auctions.add(new Pair<>(auction, new Offer(offeredPrice)));
-            clients.put(client, auctions);
-        }
+    public synchronized void addClient(Client client, Auction auction, double offeredPrice) {
+        auctions.add(auction);
+        auction.getOfferBook().addOffer(this, client, offeredPrice);
+        noActiveSignUps++;
     }
 
     /**
-     * Remove client from the broker's client list.
+     * Method used when an auction in which the broker represents clients starts: these clients don't count in the
+     * broker's load anymore.
      *
-     * @param client the client to be removed
+     * @param noSignUps the number of clients that the broker represents in the auction
      */
-    public void removeClient(Client client) {
-        this.clients.remove(client);
+    public synchronized void removeActiveSignUps(int noSignUps) {
+        noActiveSignUps -= noSignUps;
     }
 
     /**
@@ -107,57 +126,82 @@ public class Broker extends Employee {
      *
      * @param auction  the auction
      * @param newPrice the product's new price
+     * @return the number of clients that were asked for a new offer
      */
-    public void notifyClients(Auction auction, double newPrice) {
-        for (Client client : clients.keySet()) {
-            for (Pair< Auction, Offer > auctionOfferPair : clients.get(client)) {
-                if (auction == auctionOfferPair.getX()) {
-                    double clientMaxPrice = auctionOfferPair.getY().getMaxPrice();
-                    double clientCurrentPrice = auctionOfferPair.getY().getCurrentPrice();
+    public int notifyClients(Auction auction, double newPrice) {
+        int brokerSlot = auction.getOfferBook().getBrokerSlot(this);
+        if (brokerSlot < 0) {
+            return 0;
+        }
 
-                    if (newPrice < clientMaxPrice && newPrice != clientCurrentPrice) {
-                        double pretNouClient = client.updateOffer(newPrice, clientMaxPrice);
-                        Offer offer = auctionOfferPair.getY();
-                        offer.setCurrentPrice(pretNouClient);
-                        auctionOfferPair.setY(offer);
-                    }
-                    break;
-                }
+        return notifyClients(auction, brokerSlot, newPrice);
+    }
+
+    /**
+     * Notify clients of the new price of the product and request and process their new offers for it, given the
+     * broker's index in the auction's offer book, so it doesn't have to be looked up at every step.
+     *
+     * @param auction    the auction
+     * @param brokerSlot the broker's index in the auction's offer book
+     * @param newPrice   the product's new price
+     * @return the number of clients that were asked for a new offer
+     */
+    public int notifyClients(Auction auction, int brokerSlot, double newPrice) {
+        OfferBook offerBook = auction.getOfferBook();
+
+        // Only the clients that this broker represents in the auction are asked for a new offer.
+        int noOfferRequests = 0;
+        int endRow = offerBook.getEndRow(brokerSlot);
+        for (int row = offerBook.getFirstRow(brokerSlot); row < endRow; row++) {
+            double clientMaxPrice = offerBook.getMaxPrice(row);
+            double clientCurrentPrice = offerBook.getCurrentPrice(row);
+
+            if (newPrice < clientMaxPrice && newPrice != clientCurrentPrice) {
+                double pretNouClient = offerBook.getClient(row).updateOffer(newPrice, clientMaxPrice);
+                offerBook.setCurrentPrice(row, pretNouClient);
+                noOfferRequests++;
             }
         }
+
+        return noOfferRequests;
     }
 
     /**
-     * Notify clients of the auction's ending.
+     * Notify clients of the auction's ending. The broker's index is looked up in the auction's offer book.
      *
      * @param auction the auction
      * @param winner  the auction's winner
      * @param product the product
      */
     public void notifyClientsOfAuctionEnding(Auction auction, Client winner, Product product) {
-        List< Client > exClients = new ArrayList<>();
-
-        for (Client client : clients.keySet()) {
-            for (Pair< Auction, Offer > auctionOfferPair : clients.get(client)) {
-                if (auction == auctionOfferPair.getX()) {
-
-                    // Notify the client.
-                    notifyByTypeOfEnding(winner, product, client);
+        notifyClientsOfAuctionEnding(auction, auction.getOfferBook().getBrokerSlot(this), winner, product);
+    }
 
-                    // Remove the auction from the list and if necessary, the client.
-                    clients.get(client).remove(auctionOfferPair);
-                    if (clients.get(client).isEmpty()) {
-                        exClients.add(client);
-                    }
+    /**
+     * Notify clients of the auction's ending, given the broker's index in the auction's offer book.
+     * <p>
+     * Auctions may end at the same time, so the broker's auctions and earnings are only updated while holding the
+     * broker's monitor.
+     *
+     * @param auction    the auction
+     * @param brokerSlot the broker's index in the auction's offer book, -1 if he doesn't represent anyone in it
+     * @param winner     the auction's winner
+     * @param product    the product
+     */
+    public synchronized void notifyClientsOfAuctionEnding(Auction auction, int brokerSlot, Client winner,
+                                                          Product product) {
+        OfferBook offerBook = auction.getOfferBook();
 
-                    break;
-                }
+        // Notify the clients that this broker represents in the auction.
+        if (brokerSlot >= 0) {
+            int endRow = offerBook.getEndRow(brokerSlot);
+            for (int row = offerBook.getFirstRow(brokerSlot); row < endRow; row++) {
+                notifyByTypeOfEnding(winner, product, offerBook.getClient(row));
             }
         }
 
-        for (Client client : exClients) {
-            removeClient(client);
-        }
+        // The broker doesn't represent anyone in the auction anymore.
+        auctions.remove(auction);
     }
 
     /**
@@ -170,13 +214,11 @@ public class Broker extends Employee {
     private void notifyByTypeOfEnding(Client winner, Product product, Client client) {
     /* If the client is the winner of the auction send him a congratulations message and request the
        broker's fee. Also the broker whose client has won the auction has to remove the product from the
-       product's available for auction list.
+       product's available for auction list. It is removed right away, before the auction ends, so the requests
+       that come after the auction's ending never find the sold product.
     */
         if (winner == client) {
-            Thread brokerThread = new Thread(new RunnableBroker(product));
-            brokerThread.start();
-            while (brokerThread.isAlive()) {
-            }
+            AuctionHouse.getInstance().removeProduct(product);
 
             earnings += client.getAuctionResult("Congratulations, you have won the auction for the "
                     + "product " + product.getName() + ".", computeCommission(winner, product));
@@ -221,37 +263,4 @@ public class Broker extends Employee {
 
         return commission;
     }
-
-    /**
-     * The type Runnable Broker.
-     */
-    private class RunnableBroker implements Runnable {
-        /**
-         * The Product.
-         */
-        Product product;
-
-        /**
-         * Instantiates a new Runnable broker.
-         *
-         * @param product the product
-         */
-        public RunnableBroker(Product product) {
-            this.product = product;
-        }
-
-        /**
-         * Method used for removing a product from the Auction System's product list after it was bought in an auction.
-         */
-        @Override
-        public void run() {
-            try {
-                synchronized (AuctionHouse.getInstance().getProducts()) {
-                    AuctionHouse.getInstance().removeProduct(product);
-                    Thread.sleep((int) (Math.random() * 1000));
-                }
-            } catch (InterruptedException ignored) {
-            }
-        }
-    }
 }
@@ -1,8 +1,14 @@
 package AuctionHouseProject.People;
 
 import AuctionHouseProject.AuctionSystem.AuctionHouse;
+import AuctionHouseProject.AuctionSystem.LatencyPolicy;
+import AuctionHouseProject.AuctionSystem.TaskExecutor;
+import AuctionHouseProject.PrintingFeature.EventPrinter;
+import AuctionHouseProject.Products.Product;
 
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The type Client.
@@ -165,7 +171,7 @@ public abstract class Client {
      * @param brokerFee the broker's request for fee
      * @return the broker's fee
      */
-    public double getAuctionResult(String message, double brokerFee) {
+    public synchronized double getAuctionResult(String message, double brokerFee) {
         noParticipations += 1;
         noWonAuctions += 1;
         return brokerFee;
@@ -178,36 +184,52 @@ public abstract class Client {
      *
      * @param message the message
      */
-    public void getAuctionResult(String message) {
+    public synchronized void getAuctionResult(String message) {
         noParticipations += 1;
     }
 
     /**
      * Request list of products available for auction in teh Auction System.
+     * <p>
+     * The products available when the request is made, without the ones sold by the auctions running at that time,
+     * are listed in the background once these auctions have ended; the returned future completes once they have been
+     * listed. The thread that makes the request doesn't wait for the auctions.
+     *
+     * @return the future that completes when the products have been listed
      */
-    public void requestListOfProducts() {
-        System.out.println("Request for listing the products available for sale from the client " + name +
-                " with the ID " + id + ":");
-        Thread clientThread = new Thread(new RunnableClient());
-        clientThread.start();
-        while (clientThread.isAlive()) {
-        }
+    public CompletableFuture< Void > requestListOfProducts() {
+        EventPrinter.getInstance().print("Request for listing the products available for sale from the client " +
+                name + " with the ID " + id + ":");
+        return AuctionHouse.getInstance().getProductsAfterRunningAuctions().thenCompose(productsSnapshot ->
+                TaskExecutor.getInstance().submit(new RunnableClient(productsSnapshot)));
     }
 
     /**
      * The type Runnable Client
      */
     private class RunnableClient implements Runnable {
+        /**
+         * The snapshot of the products available for auction.
+         */
+        List< Product > productsSnapshot;
+
+        /**
+         * Instantiates a new Runnable client.
+         *
+         * @param productsSnapshot the snapshot of the products available for auction
+         */
+        public RunnableClient(List< Product > productsSnapshot) {
+            this.productsSnapshot = productsSnapshot;
+        }
+
         /**
          * Method used for removing requesting a list of products available for auction in the Auction House.
          */
         @Override
         public void run() {
             try {
-                synchronized (AuctionHouse.getInstance().getProducts()) {
-                    AuctionHouse.getInstance().listProducts();
-                    Thread.sleep((int) (Math.random() * 1000));
-                }
+                AuctionHouse.getInstance().listProducts(productsSnapshot);
+                LatencyPolicy.getInstance().pause();
             } catch (InterruptedException ignored) {
             }
         }
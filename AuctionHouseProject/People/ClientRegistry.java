@@ -0,0 +1,95 @@
+package AuctionHouseProject.People;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The type Client registry.
+ * <p>
+ * Class that describes the behaviour of the registry of clients of an Auction House. It hands out the clients' ids
+ * and indexes the clients by them, so that a client can be found in constant time. Clients may be signed up from
+ * several threads at once.
+ */
+public class ClientRegistry {
+    /**
+     * The id given to the last signed up Client.
+     */
+    private final AtomicInteger lastClientId;
+    /**
+     * The Clients indexed by their id.
+     */
+    private final Map< Integer, Client > clientsById;
+
+    /**
+     * Instantiates a new Client Registry.
+     */
+    public ClientRegistry() {
+        this.lastClientId = new AtomicInteger(0);
+        this.clientsById = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Sign up a client: give him the next free id and add him to the registry.
+     *
+     * @param client the client
+     * @return the client's id
+     */
+    public int signUp(Client client) {
+        int clientId = lastClientId.incrementAndGet();
+        client.setId(clientId);
+        clientsById.put(clientId, client);
+
+        return clientId;
+    }
+
+    /**
+     * Add a client that already has an id, restored from a snapshot. The next signed up client gets an id greater than
+     * his.
+     *
+     * @param client the client
+     */
+    public void restore(Client client) {
+        clientsById.put(client.getId(), client);
+        lastClientId.accumulateAndGet(client.getId(), Math::max);
+    }
+
+    /**
+     * Gets a client by his id.
+     *
+     * @param clientId the client's id
+     * @return the client or null if there isn't any client with this id in the registry
+     */
+    public Client getClient(int clientId) {
+        return clientsById.get(clientId);
+    }
+
+    /**
+     * Gets the list of clients, ordered by their id.
+     *
+     * @return the list of clients
+     */
+    public List< Client > getClients() {
+        List< Client > clients = new ArrayList<>(clientsById.size());
+
+        for (int clientId = 1; clientId <= lastClientId.get(); clientId++) {
+            Client client = clientsById.get(clientId);
+            if (client != null) {
+                clients.add(client);
+            }
+        }
+
+        return clients;
+    }
+
+    /**
+     * Gets the number of clients in the registry.
+     *
+     * @return the number of clients in the registry
+     */
+    public int size() {
+        return clientsById.size();
+    }
+}
@@ -0,0 +1,120 @@
+package AuctionHouseProject.Persistence;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The type Auction outcome.
+ * <p>
+ * Class that describes the recorded outcome of an auction: the journal sequence of the command that has started the
+ * auction, the auction's and the product's ids, the id of the winner (if any) and the final price. It is enough for
+ * ending the auction again, after a restart, without simulating its bidding.
+ */
+public final class AuctionOutcome {
+    /**
+     * The number of bytes of an encoded outcome.
+     */
+    public static final int SIZE = Long.BYTES + 3 * Integer.BYTES + Double.BYTES;
+
+    /**
+     * The journal sequence of the command that has started the auction.
+     */
+    private final long startSequence;
+    /**
+     * The auction's id.
+     */
+    private final int auctionId;
+    /**
+     * The auctioned product's id.
+     */
+    private final int productId;
+    /**
+     * The winner's id, -1 if there is no winner.
+     */
+    private final int winnerId;
+    /**
+     * The final price of the auction.
+     */
+    private final double price;
+
+    /**
+     * Instantiates a new Auction Outcome.
+     *
+     * @param startSequence the journal sequence of the command that has started the auction
+     * @param auctionId     the auction's id
+     * @param productId     the auctioned product's id
+     * @param winnerId      the winner's id, -1 if there is no winner
+     * @param price         the final price of the auction
+     */
+    public AuctionOutcome(long startSequence, int auctionId, int productId, int winnerId, double price) {
+        this.startSequence = startSequence;
+        this.auctionId = auctionId;
+        this.productId = productId;
+        this.winnerId = winnerId;
+        this.price = price;
+    }
+
+    /**
+     * Decode an outcome.
+     *
+     * @param buffer the buffer positioned at the encoded outcome
+     * @return the outcome
+     */
+    public static AuctionOutcome readFrom(ByteBuffer buffer) {
+        return new AuctionOutcome(buffer.getLong(), buffer.getInt(), buffer.getInt(), buffer.getInt(),
+                buffer.getDouble());
+    }
+
+    /**
+     * Encode the outcome.
+     *
+     * @param buffer the buffer where the outcome is written, with at least SIZE bytes remaining
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putLong(startSequence).putInt(auctionId).putInt(productId).putInt(winnerId).putDouble(price);
+    }
+
+    /**
+     * Gets the journal sequence of the command that has started the auction.
+     *
+     * @return the journal sequence of the command that has started the auction
+     */
+    public long getStartSequence() {
+        return startSequence;
+    }
+
+    /**
+     * Gets the auction's id.
+     *
+     * @return the auction's id
+     */
+    public int getAuctionId() {
+        return auctionId;
+    }
+
+    /**
+     * Gets the auctioned product's id.
+     *
+     * @return the auctioned product's id
+     */
+    public int getProductId() {
+        return productId;
+    }
+
+    /**
+     * Gets the winner's id.
+     *
+     * @return the winner's id, -1 if there is no winner
+     */
+    public int getWinnerId() {
+        return winnerId;
+    }
+
+    /**
+     * Gets the final price of the auction.
+     *
+     * @return the final price of the auction
+     */
+    public double getPrice() {
+        return price;
+    }
+}
@@ -0,0 +1,455 @@
+package AuctionHouseProject.Persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The type Bid journal.
+ * <p>
+ * Class that describes the behaviour of the history of the bids made in the auctions. Every offer of every step is
+ * stored as a fixed-width binary record (a commit mark, the auction's id, the step, the client's id, the offered price
+ * and the auction's price at the end of the step) in memory-mapped segment files of the same size. The threads that
+ * run auctions claim the slots of their records with an atomic counter, so they never wait for each other, and each
+ * record is marked as committed only after its fields are written, so the readers never see half of a record. When a
+ * segment is full the journal rolls over to the next one.
+ * <p>
+ * A slot whose record couldn't be written is marked as skipped, so the readers go past it. A slot claimed by a writer
+ * that has crashed before committing it stays empty; the writer holds a lock on the journal while it is open, so the
+ * readers know that such a hole is dead once the lock is free and a later record exists, and the next writer marks
+ * the holes as skipped when it opens the journal. Each segment counts its finished records and is kept mapped, and
+ * forced with the others, until all of them are finished, however late the last writer is; then it is sealed with a
+ * marker file, so the next writer doesn't have to look for holes in it, and released after the next force.
+ */
+public class BidJournal implements AutoCloseable {
+    /**
+     * The system property used for choosing the directory of the bid journal; without it the bids aren't recorded.
+     */
+    public static final String DIRECTORY_PROPERTY = "auctionhouse.bids.directory";
+    /**
+     * The number of bytes of a record.
+     */
+    public static final int RECORD_SIZE = 32;
+    /**
+     * The default number of records of a segment.
+     */
+    public static final int DEFAULT_SEGMENT_RECORDS = 1 << 20;
+
+    /**
+     * The offset of the commit mark in a record.
+     */
+    static final int COMMIT_OFFSET = 0;
+    /**
+     * The offset of the auction's id in a record.
+     */
+    static final int AUCTION_ID_OFFSET = 4;
+    /**
+     * The offset of the step in a record.
+     */
+    static final int STEP_OFFSET = 8;
+    /**
+     * The offset of the client's id in a record.
+     */
+    static final int CLIENT_ID_OFFSET = 12;
+    /**
+     * The offset of the offered price in a record.
+     */
+    static final int OFFERED_PRICE_OFFSET = 16;
+    /**
+     * The offset of the leading price in a record.
+     */
+    static final int LEADING_PRICE_OFFSET = 24;
+    /**
+     * The commit mark of a complete record.
+     */
+    static final int COMMITTED = 1;
+    /**
+     * The commit mark of a slot that was claimed, but will never hold a record, which the readers skip.
+     */
+    static final int SKIPPED = 2;
+    /**
+     * The handle used for writing and reading the commit marks with release and acquire semantics.
+     */
+    static final VarHandle COMMIT_MARK = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    /**
+     * The directory of the segments.
+     */
+    private final Path directory;
+    /**
+     * The number of records of a segment.
+     */
+    private final int recordsPerSegment;
+    /**
+     * The index of the first record written since the journal was opened.
+     */
+    private final long firstRecord;
+    /**
+     * The index of the next record.
+     */
+    private final AtomicLong nextRecord;
+    /**
+     * The channel of the lock file, whose lock is held while the journal is open.
+     */
+    private final FileChannel lockChannel;
+    /**
+     * The mapped segments that may still be written, indexed by their number.
+     */
+    private final Map< Long, Segment > segments = new ConcurrentHashMap<>();
+    /**
+     * The sealed segments that haven't been forced to the disk since they were sealed.
+     */
+    private final Queue< Segment > sealedSegments = new ConcurrentLinkedQueue<>();
+    /**
+     * The segment being written, for finding it without a lookup.
+     */
+    private volatile Segment currentSegment = null;
+
+    /**
+     * Instantiates a new Bid Journal.
+     *
+     * @param directory         the directory of the segments
+     * @param recordsPerSegment the number of records of a segment
+     * @param nextRecord        the index of the next record
+     * @param lockChannel       the channel of the lock file, whose lock is held
+     */
+    private BidJournal(Path directory, int recordsPerSegment, long nextRecord, FileChannel lockChannel) {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.firstRecord = nextRecord;
+        this.nextRecord = new AtomicLong(nextRecord);
+        this.lockChannel = lockChannel;
+    }
+
+    /**
+     * Open a bid journal with segments of the default size, creating its directory if it doesn't exist.
+     *
+     * @param directory the directory of the segments
+     * @return the bid journal
+     * @throws IOException if the directory can't be created or read
+     */
+    public static BidJournal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_RECORDS);
+    }
+
+    /**
+     * Open a bid journal, creating its directory if it doesn't exist. The new records are appended after the last
+     * used slot; the existing segments keep their size. The holes left by a writer that has crashed are marked as
+     * skipped first.
+     *
+     * @param directory         the directory of the segments
+     * @param recordsPerSegment the number of records of the new segments
+     * @return the bid journal
+     * @throws IOException if the directory can't be created or read, or another writer has the journal open
+     */
+    public static BidJournal open(Path directory, int recordsPerSegment) throws IOException {
+        Files.createDirectories(directory);
+
+        FileChannel lockChannel = FileChannel.open(lockFile(directory), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        try {
+            FileLock lock;
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                throw new IOException("The bid journal from " + directory + " is already open.");
+            }
+
+            long lastSegment = -1;
+            while (Files.exists(segmentFile(directory, lastSegment + 1))) {
+                lastSegment++;
+            }
+            if (lastSegment < 0) {
+                return new BidJournal(directory, recordsPerSegment, 0, lockChannel);
+            }
+
+            // The existing segments decide the size of the segments.
+            int existingRecordsPerSegment = (int) (Files.size(segmentFile(directory, 0)) / RECORD_SIZE);
+            long nextRecord = sealSegments(directory, existingRecordsPerSegment, lastSegment);
+
+            return new BidJournal(directory, existingRecordsPerSegment, nextRecord, lockChannel);
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Mark as skipped the holes of the segments that the last writer hasn't sealed, and seal the ones that are full.
+     * The last writer is gone, so none of its holes will be committed anymore: every slot of a segment before the last
+     * one was claimed, while in the last segment only the slots before the last used one are known to be claimed.
+     *
+     * @param directory         the directory of the segments
+     * @param recordsPerSegment the number of records of a segment
+     * @param lastSegment       the number of the last segment
+     * @return the index of the next record
+     * @throws IOException if a segment can't be read or written
+     */
+    private static long sealSegments(Path directory, int recordsPerSegment, long lastSegment) throws IOException {
+        long nextRecord = lastSegment * recordsPerSegment;
+
+        for (long segmentNumber = 0; segmentNumber <= lastSegment; segmentNumber++) {
+            if (Files.exists(sealFile(directory, segmentNumber))) {
+                continue;
+            }
+
+            try (FileChannel channel = FileChannel.open(segmentFile(directory, segmentNumber),
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+
+                int noUsedSlots = recordsPerSegment;
+                if (segmentNumber == lastSegment) {
+                    noUsedSlots = 0;
+                    for (int slot = recordsPerSegment - 1; slot >= 0; slot--) {
+                        if (isFinished(segment.getInt(slot * RECORD_SIZE + COMMIT_OFFSET))) {
+                            noUsedSlots = slot + 1;
+                            break;
+                        }
+                    }
+                    nextRecord += noUsedSlots;
+                }
+
+                for (int slot = 0; slot < noUsedSlots; slot++) {
+                    if (!isFinished(segment.getInt(slot * RECORD_SIZE + COMMIT_OFFSET))) {
+                        segment.putInt(slot * RECORD_SIZE + COMMIT_OFFSET, SKIPPED);
+                    }
+                }
+                segment.force();
+
+                if (noUsedSlots == recordsPerSegment) {
+                    Files.createFile(sealFile(directory, segmentNumber));
+                }
+            }
+        }
+
+        return nextRecord;
+    }
+
+    /**
+     * Whether a slot with a commit mark is finished or not: it holds a record or it is skipped.
+     *
+     * @param commitMark the commit mark
+     * @return true if the slot is finished, else false
+     */
+    static boolean isFinished(int commitMark) {
+        return commitMark == COMMITTED || commitMark == SKIPPED;
+    }
+
+    /**
+     * Gets the file of a segment.
+     *
+     * @param directory     the directory of the segments
+     * @param segmentNumber the segment's number
+     * @return the file of the segment
+     */
+    static Path segmentFile(Path directory, long segmentNumber) {
+        return directory.resolve(String.format("bids-%08d.seg", segmentNumber));
+    }
+
+    /**
+     * Gets the marker file of a segment whose slots are all finished.
+     *
+     * @param directory     the directory of the segments
+     * @param segmentNumber the segment's number
+     * @return the marker file of the segment
+     */
+    static Path sealFile(Path directory, long segmentNumber) {
+        return directory.resolve(String.format("bids-%08d.sealed", segmentNumber));
+    }
+
+    /**
+     * Gets the lock file of a bid journal, which is locked by its writer while the journal is open.
+     *
+     * @param directory the directory of the segments
+     * @return the lock file
+     */
+    static Path lockFile(Path directory) {
+        return directory.resolve("bids.lock");
+    }
+
+    /**
+     * Gets the directory of the segments.
+     *
+     * @return the directory of the segments
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the number of records written so far, including the ones being written.
+     *
+     * @return the number of records
+     */
+    public long getNoRecords() {
+        return nextRecord.get();
+    }
+
+    /**
+     * Record the offer made by a client at a step of an auction.
+     *
+     * @param auctionId    the auction's id
+     * @param step         the step of the auction, 0 for the auctions resolved by proxy bidding
+     * @param clientId     the client's id
+     * @param offeredPrice the price offered by the client
+     * @param leadingPrice the auction's price at the end of the step
+     */
+    public void append(int auctionId, int step, int clientId, double offeredPrice, double leadingPrice) {
+        long record = nextRecord.getAndIncrement();
+        long segmentNumber = record / recordsPerSegment;
+
+        Segment segment = currentSegment;
+        if (segment == null || segment.number != segmentNumber) {
+            segment = getSegment(segmentNumber);
+        }
+
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = (int) (record % recordsPerSegment) * RECORD_SIZE;
+        int commitMark = SKIPPED;
+        try {
+            buffer.putInt(offset + AUCTION_ID_OFFSET, auctionId);
+            buffer.putInt(offset + STEP_OFFSET, step);
+            buffer.putInt(offset + CLIENT_ID_OFFSET, clientId);
+            buffer.putDouble(offset + OFFERED_PRICE_OFFSET, offeredPrice);
+            buffer.putDouble(offset + LEADING_PRICE_OFFSET, leadingPrice);
+            commitMark = COMMITTED;
+        } finally {
+            // A record that couldn't be written is skipped, so the readers don't wait for it.
+            COMMIT_MARK.setRelease(buffer, offset + COMMIT_OFFSET, commitMark);
+            if (segment.noFinishedRecords.incrementAndGet() == recordsPerSegment) {
+                seal(segment);
+            }
+        }
+    }
+
+    /**
+     * Force the records written so far to the disk, including the ones of the older segments that are still being
+     * written.
+     */
+    public void force() {
+        for (Segment segment = sealedSegments.poll(); segment != null; segment = sealedSegments.poll()) {
+            segment.buffer.force();
+        }
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * Force the records written so far to the disk, release the segments and unlock the journal.
+     */
+    @Override
+    public void close() {
+        force();
+        segments.clear();
+        currentSegment = null;
+
+        try {
+            lockChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("The bid journal from " + directory + " couldn't be unlocked.", e);
+        }
+    }
+
+    /**
+     * Gets a mapped segment, mapping it first if needed. Mapping a new segment rolls the journal over to it; the older
+     * segments stay mapped until all their records are finished.
+     *
+     * @param segmentNumber the segment's number
+     * @return the mapped segment
+     */
+    private Segment getSegment(long segmentNumber) {
+        Segment segment = segments.computeIfAbsent(segmentNumber, number -> {
+            try (FileChannel channel = FileChannel.open(segmentFile(directory, number), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        (long) recordsPerSegment * RECORD_SIZE);
+
+                // The slots of the first segment before the first record were finished by the previous writers.
+                int noFinishedRecords = number == firstRecord / recordsPerSegment ?
+                        (int) (firstRecord % recordsPerSegment) : 0;
+                return new Segment(number, buffer, noFinishedRecords);
+            } catch (IOException e) {
+                throw new UncheckedIOException("The segment " + number + " of the bid journal couldn't be mapped.",
+                        e);
+            }
+        });
+
+        synchronized (this) {
+            Segment current = currentSegment;
+            if (current == null || current.number < segmentNumber) {
+                currentSegment = segment;
+            }
+        }
+
+        return segment;
+    }
+
+    /**
+     * Seal a segment whose records are all finished: create its marker file and leave it to the next force, which
+     * releases it. A segment whose marker couldn't be created is only looked at again for holes when the journal is
+     * opened.
+     *
+     * @param segment the segment
+     */
+    private void seal(Segment segment) {
+        try {
+            Files.createFile(sealFile(directory, segment.number));
+        } catch (IOException e) {
+            // The marker only spares the next writer from looking for holes in the segment.
+        }
+        sealedSegments.add(segment);
+        segments.remove(segment.number);
+    }
+
+    /**
+     * The type Segment.
+     * <p>
+     * Class that describes a mapped segment together with its number and the number of its finished records.
+     */
+    private static final class Segment {
+        /**
+         * The segment's number.
+         */
+        private final long number;
+        /**
+         * The mapped segment.
+         */
+        private final MappedByteBuffer buffer;
+        /**
+         * The number of the segment's records that are committed or skipped.
+         */
+        private final AtomicInteger noFinishedRecords;
+
+        /**
+         * Instantiates a new Segment.
+         *
+         * @param number            the segment's number
+         * @param buffer            the mapped segment
+         * @param noFinishedRecords the number of records that are already finished
+         */
+        private Segment(long number, MappedByteBuffer buffer, int noFinishedRecords) {
+            this.number = number;
+            this.buffer = buffer;
+            this.noFinishedRecords = new AtomicInteger(noFinishedRecords);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package AuctionHouseProject.Persistence;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Bid journal reader.
+ * <p>
+ * Class that describes the behaviour of a reader of the bid journal. The reader remembers how far it has read, so it
+ * can either scan the records written so far once, or be polled repeatedly for tailing the journal while the auctions
+ * are running. It stops at the first record that isn't committed yet and continues from it at the next poll, unless
+ * the record is known to be dead: the slots marked as skipped are passed over, and so is a hole followed by a later
+ * record once the writer that claimed it is gone.
+ */
+public class BidJournalReader {
+    /**
+     * The directory of the segments.
+     */
+    private final Path directory;
+    /**
+     * The number of the segment being read.
+     */
+    private long segmentNumber = 0;
+    /**
+     * The slot of the next record in the segment being read.
+     */
+    private int slot = 0;
+    /**
+     * The segment being read, null if it hasn't been mapped yet.
+     */
+    private MappedByteBuffer segment = null;
+
+    /**
+     * Instantiates a new Bid Journal Reader that starts from the first record.
+     *
+     * @param directory the directory of the segments
+     */
+    public BidJournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Read all the committed records of a bid journal.
+     *
+     * @param directory the directory of the segments
+     * @param handler   the consumer of the records
+     * @return the number of records read
+     * @throws IOException if a segment can't be read
+     */
+    public static long scan(Path directory, BidRecordHandler handler) throws IOException {
+        return new BidJournalReader(directory).poll(handler);
+    }
+
+    /**
+     * The entry point of the reader: print the records of a bid journal, optionally only the ones of an auction, and
+     * optionally keep printing the new ones.
+     * <p>
+     * The arguments are the directory of the journal, optionally followed by --auction id and --tail.
+     *
+     * @param args the input arguments
+     * @throws IOException          if a segment can't be read
+     * @throws InterruptedException if the thread was interrupted while tailing the journal
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Usage: BidJournalReader <directory> [--auction id] [--tail]");
+            System.exit(2);
+        }
+
+        int auctionFilter = -1;
+        boolean tail = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--auction" -> auctionFilter = Integer.parseInt(args[++i]);
+                case "--tail" -> tail = true;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+            }
+        }
+
+        int auctionId = auctionFilter;
+        BidRecordHandler printer = (recordAuctionId, step, clientId, offeredPrice, leadingPrice) -> {
+            if (auctionId < 0 || recordAuctionId == auctionId) {
+                System.out.printf(Locale.ROOT, "%d %d %d %.2f %.2f%n", recordAuctionId, step, clientId, offeredPrice,
+                        leadingPrice);
+            }
+        };
+
+        BidJournalReader reader = new BidJournalReader(Path.of(args[0]));
+        do {
+            if (reader.poll(printer) == 0 && tail) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        } while (tail);
+    }
+
+    /**
+     * Read the records committed since the last poll.
+     *
+     * @param handler the consumer of the records
+     * @return the number of records read
+     * @throws IOException if a segment can't be read
+     */
+    public long poll(BidRecordHandler handler) throws IOException {
+        long noRecords = 0;
+
+        while (true) {
+            if (segment == null) {
+                Path segmentFile = BidJournal.segmentFile(directory, segmentNumber);
+                if (!Files.exists(segmentFile)) {
+                    return noRecords;
+                }
+                try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+                    segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            }
+
+            int noSlots = segment.capacity() / BidJournal.RECORD_SIZE;
+            while (slot < noSlots) {
+                int offset = slot * BidJournal.RECORD_SIZE;
+                int commitMark = (int) BidJournal.COMMIT_MARK.getAcquire(segment, offset + BidJournal.COMMIT_OFFSET);
+                if (commitMark != BidJournal.COMMITTED) {
+                    if (commitMark != BidJournal.SKIPPED && !isDeadHole(noSlots)) {
+                        return noRecords;
+                    }
+                    slot++;
+                    continue;
+                }
+
+                handler.onBid(segment.getInt(offset + BidJournal.AUCTION_ID_OFFSET),
+                        segment.getInt(offset + BidJournal.STEP_OFFSET),
+                        segment.getInt(offset + BidJournal.CLIENT_ID_OFFSET),
+                        segment.getDouble(offset + BidJournal.OFFERED_PRICE_OFFSET),
+                        segment.getDouble(offset + BidJournal.LEADING_PRICE_OFFSET));
+                slot++;
+                noRecords++;
+            }
+
+            // The segment is read completely, so the reader moves on to the next one.
+            segment = null;
+            segmentNumber++;
+            slot = 0;
+        }
+    }
+
+    /**
+     * Whether the empty slot being read is a dead hole or not: its writer is gone, so it will never be committed, and
+     * a later record exists, so it isn't the end of the journal either.
+     *
+     * @param noSlots the number of slots of the segment being read
+     * @return true if the slot is a dead hole, else false
+     * @throws IOException if the lock file can't be read
+     */
+    private boolean isDeadHole(int noSlots) throws IOException {
+        if (!isWriterGone()) {
+            return false;
+        }
+
+        for (int laterSlot = slot + 1; laterSlot < noSlots; laterSlot++) {
+            if (BidJournal.isFinished(segment.getInt(laterSlot * BidJournal.RECORD_SIZE + BidJournal.COMMIT_OFFSET))) {
+                return true;
+            }
+        }
+
+        return Files.exists(BidJournal.segmentFile(directory, segmentNumber + 1));
+    }
+
+    /**
+     * Whether the writer of the journal is gone or not: nobody holds the lock of the journal. A journal opened by this
+     * process isn't gone, even if its lock can't be seen from here.
+     *
+     * @return true if the writer is gone, else false
+     * @throws IOException if the lock file can't be read
+     */
+    private boolean isWriterGone() throws IOException {
+        try (FileChannel channel = FileChannel.open(BidJournal.lockFile(directory), StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return false;
+            }
+            lock.release();
+            return true;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        } catch (NoSuchFileException e) {
+            // The journals written before the lock existed have no writer anymore.
+            return true;
+        }
+    }
+}
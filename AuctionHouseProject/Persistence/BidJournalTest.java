@@ -0,0 +1,156 @@
+package AuctionHouseProject.Persistence;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The type Bid journal test.
+ * <p>
+ * Class that describes the regression test of the holes of the bid journal: a slot claimed by a writer that has
+ * crashed before committing it must not hide the records written after it. The test leaves such a hole in a journal
+ * with small segments and checks which records a reader finds while the writer is alive, after it is gone and after
+ * the journal is opened again, and that the full segments are sealed. The exit code is 1 if the test has failed.
+ */
+public class BidJournalTest {
+    /**
+     * The number of records of the test's segments.
+     */
+    private static final int RECORDS_PER_SEGMENT = 4;
+
+    /**
+     * The failed checks.
+     */
+    private final List< String > failures = new ArrayList<>();
+
+    /**
+     * The entry point of the test.
+     *
+     * @param args the input arguments, which aren't used
+     * @throws IOException if the journal can't be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        BidJournalTest test = new BidJournalTest();
+        Path directory = Files.createTempDirectory("bids");
+        try {
+            test.run(directory);
+        } finally {
+            try (Stream< Path > files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+
+        for (String failure : test.failures) {
+            System.err.println("FAILED " + failure);
+        }
+        System.err.println(test.failures.isEmpty() ? "The bid journal test has passed." :
+                test.failures.size() + " checks of the bid journal test have failed.");
+
+        System.exit(test.failures.isEmpty() ? 0 : 1);
+    }
+
+    /**
+     * Run the test in an empty directory.
+     *
+     * @param directory the directory of the journal
+     * @throws IOException if the journal can't be written or read
+     */
+    private void run(Path directory) throws IOException {
+        BidJournalReader tailingReader = new BidJournalReader(directory);
+
+        /* The auction ids 1 to 6 are written in the slots 0 to 5, and the slot 4, the first one of the second segment,
+           loses its commit mark, as if its writer had crashed while writing it.
+        */
+        BidJournal journal = BidJournal.open(directory, RECORDS_PER_SEGMENT);
+        for (int auctionId = 1; auctionId <= 6; auctionId++) {
+            journal.append(auctionId, 1, 100 + auctionId, auctionId * 10.0, auctionId * 10.0);
+        }
+        clearCommitMark(directory, 1, 0);
+
+        check("a reader stops at the hole while the writer is alive", List.of(1, 2, 3, 4), read(directory));
+        check("a tailing reader stops at the hole while the writer is alive", List.of(1, 2, 3, 4),
+                poll(tailingReader));
+        check("the full segment is sealed", true, Files.exists(BidJournal.sealFile(directory, 0)));
+
+        journal.close();
+        check("a reader skips the hole once the writer is gone", List.of(1, 2, 3, 4, 6), read(directory));
+        check("a tailing reader skips the hole once the writer is gone", List.of(6), poll(tailingReader));
+
+        // The next writer marks the hole as skipped and continues after the last record.
+        journal = BidJournal.open(directory, RECORDS_PER_SEGMENT);
+        check("the journal continues after the last record", 6L, journal.getNoRecords());
+        for (int auctionId = 7; auctionId <= 9; auctionId++) {
+            journal.append(auctionId, 1, 100 + auctionId, auctionId * 10.0, auctionId * 10.0);
+        }
+
+        check("a reader skips the sealed hole while the next writer is alive", List.of(1, 2, 3, 4, 6, 7, 8, 9),
+                read(directory));
+        check("a tailing reader reads the records of the next writer", List.of(7, 8, 9), poll(tailingReader));
+        check("the segment with the hole is sealed", true, Files.exists(BidJournal.sealFile(directory, 1)));
+        check("the last segment isn't sealed", false, Files.exists(BidJournal.sealFile(directory, 2)));
+        journal.close();
+    }
+
+    /**
+     * Clear the commit mark of a slot.
+     *
+     * @param directory     the directory of the journal
+     * @param segmentNumber the segment's number
+     * @param slot          the slot
+     * @throws IOException if the segment can't be written
+     */
+    private static void clearCommitMark(Path directory, long segmentNumber, int slot) throws IOException {
+        try (FileChannel channel = FileChannel.open(BidJournal.segmentFile(directory, segmentNumber),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            segment.putInt(slot * BidJournal.RECORD_SIZE + BidJournal.COMMIT_OFFSET, 0);
+            segment.force();
+        }
+    }
+
+    /**
+     * Read the auction ids of all the records of the journal with a new reader.
+     *
+     * @param directory the directory of the journal
+     * @return the auction ids
+     * @throws IOException if the journal can't be read
+     */
+    private static List< Integer > read(Path directory) throws IOException {
+        return poll(new BidJournalReader(directory));
+    }
+
+    /**
+     * Read the auction ids of the records committed since the last poll of a reader.
+     *
+     * @param reader the reader
+     * @return the auction ids
+     * @throws IOException if the journal can't be read
+     */
+    private static List< Integer > poll(BidJournalReader reader) throws IOException {
+        List< Integer > auctionIds = new ArrayList<>();
+        reader.poll((auctionId, step, clientId, offeredPrice, leadingPrice) -> auctionIds.add(auctionId));
+        return auctionIds;
+    }
+
+    /**
+     * Check a result of the test.
+     *
+     * @param description what is checked
+     * @param expected    the expected result
+     * @param actual      the actual result
+     */
+    private void check(String description, Object expected, Object actual) {
+        if (!expected.equals(actual)) {
+            failures.add(description + ": expected " + expected + ", but got " + actual + ".");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package AuctionHouseProject.Persistence;
+
+/**
+ * The interface Bid record handler.
+ * <p>
+ * Describes the behaviour of a consumer of the records read from a bid journal.
+ */
+public interface BidRecordHandler {
+    /**
+     * Handle the offer made by a client at a step of an auction.
+     *
+     * @param auctionId    the auction's id
+     * @param step         the step of the auction, 0 for the auctions resolved by proxy bidding
+     * @param clientId     the client's id
+     * @param offeredPrice the price offered by the client
+     * @param leadingPrice the auction's price at the end of the step
+     */
+    void onBid(int auctionId, int step, int clientId, double offeredPrice, double leadingPrice);
+}
@@ -0,0 +1,536 @@
+package AuctionHouseProject.Persistence;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * The type Command journal.
+ * <p>
+ * Class that describes the behaviour of the write-ahead journal of the Auction House. Every command accepted by the
+ * control panel and every outcome of an auction is appended to the journal as a record: the length of its content, a
+ * checksum, its type, its sequence and its content. The records are gathered in memory and a single writer thread
+ * writes and forces to the disk, in one batch, all the records gathered while it was busy with the previous batch or
+ * during a short group commit delay, so many records share the cost of one fsync and appending a record never waits
+ * for the disk. The callers that need a record to be durable wait for it explicitly.
+ * <p>
+ * Neither the commands nor the outcomes wait for the disk before they take effect, so the control panel keeps executing
+ * commands during the group commit delay and many of them share one fsync. A synchronous journal, the default, gates
+ * what is seen instead: the messages printed about the commands and the auctions are held back by a DurableEventSink
+ * until the records that precede them are forced to the disk, so the effects that a crash may lose, those of the last
+ * group commit delay, were never shown to anyone. An asynchronous journal prints the messages right away.
+ * <p>
+ * When the journal is opened, a record that was only partly written before a crash is cut off, so the journal can be
+ * read again from the beginning and new records are appended after the last complete one.
+ */
+public class CommandJournal implements AutoCloseable {
+    /**
+     * The system property used for choosing the file of the journal; without it nothing is journaled.
+     */
+    public static final String FILE_PROPERTY = "auctionhouse.journal.file";
+    /**
+     * The system property used for choosing whether the messages are held back until the records that precede them are
+     * forced to the disk or not.
+     */
+    public static final String SYNC_PROPERTY = "auctionhouse.journal.sync";
+    /**
+     * The type of the records with a command.
+     */
+    public static final byte COMMAND_RECORD = 1;
+    /**
+     * The type of the records with the outcome of an auction.
+     */
+    public static final byte AUCTION_OUTCOME_RECORD = 2;
+    /**
+     * The type of the records with the ids given to a new product and to its auction.
+     */
+    public static final byte PRODUCT_IDS_RECORD = 3;
+
+    /**
+     * The number of bytes before a record's content: its length, its checksum, its type and its sequence.
+     */
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + 1 + Long.BYTES;
+    /**
+     * The number of header bytes covered by the checksum: the type and the sequence.
+     */
+    private static final int CHECKED_HEADER_SIZE = 1 + Long.BYTES;
+    /**
+     * The initial size of the buffers in which the records are gathered.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    /**
+     * The number of bytes after which a batch is written without waiting for more records.
+     */
+    private static final int GROUP_COMMIT_SIZE = 256 * 1024;
+    /**
+     * The longest time, in nanoseconds, that the writer thread waits for a batch to grow before writing it.
+     */
+    private static final long GROUP_COMMIT_DELAY_NANOS = 2_000_000;
+    /**
+     * The number of bytes that may wait to be written before the threads that append records are slowed down.
+     */
+    private static final int MAX_PENDING_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * The file of the journal.
+     */
+    private final Path file;
+    /**
+     * The channel to the file of the journal.
+     */
+    private final FileChannel channel;
+    /**
+     * The checksum of the records being appended.
+     */
+    private final CRC32C checksum = new CRC32C();
+    /**
+     * Whether the messages are held back until the records that precede them are forced to the disk or not.
+     */
+    private final boolean sync;
+
+    /**
+     * The buffer in which the records are appended.
+     */
+    private ByteBuffer pendingRecords = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    /**
+     * The buffer whose records are being written by the writer thread.
+     */
+    private ByteBuffer writtenRecords = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    /**
+     * The sequence of the next record.
+     */
+    private long nextSequence;
+    /**
+     * The sequence of the last record appended.
+     */
+    private volatile long lastSequence;
+    /**
+     * The sequence of the last record forced to the disk.
+     */
+    private volatile long durableSequence;
+    /**
+     * The sequence of the last record taken by the writer thread for being written.
+     */
+    private long batchedSequence;
+    /**
+     * The highest sequence of a record waited for.
+     */
+    private long awaitedSequence = -1;
+    /**
+     * The listener told about the sequence of the last record forced to the disk after each fsync, null if there isn't
+     * any.
+     */
+    private volatile LongConsumer durabilityListener = null;
+    /**
+     * The error that has stopped the writer thread, if any.
+     */
+    private volatile IOException writeError = null;
+    /**
+     * Whether the journal was closed or not.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * The writer thread.
+     */
+    private final Thread writer;
+
+    /**
+     * Instantiates a new Command Journal.
+     *
+     * @param file         the file of the journal
+     * @param channel      the channel to the file, positioned after the last complete record
+     * @param nextSequence the sequence of the next record
+     * @param sync         whether the messages are held back until the records that precede them are forced to the
+     *                     disk or not
+     */
+    private CommandJournal(Path file, FileChannel channel, long nextSequence, boolean sync) {
+        this.file = file;
+        this.channel = channel;
+        this.nextSequence = nextSequence;
+        this.sync = sync;
+        this.lastSequence = nextSequence - 1;
+        this.durableSequence = nextSequence - 1;
+        this.batchedSequence = nextSequence - 1;
+        this.writer = new Thread(this::writeRecords, "auction-house-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Open a journal, creating its file if it doesn't exist. A record that was only partly written is cut off. The
+     * journal is synchronous unless the system property says otherwise.
+     *
+     * @param file the file of the journal
+     * @return the journal
+     * @throws IOException if the file can't be opened or read
+     */
+    public static CommandJournal open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        try {
+            long[] lastSequence = {-1};
+            long validLength = scan(channel, new JournalRecordHandler() {
+                @Override
+                public void onCommand(long sequence, String command) {
+                    lastSequence[0] = sequence;
+                }
+
+                @Override
+                public void onAuctionOutcome(long sequence, AuctionOutcome outcome) {
+                    lastSequence[0] = sequence;
+                }
+
+                @Override
+                public void onProductIds(long sequence, ProductIds productIds) {
+                    lastSequence[0] = sequence;
+                }
+            });
+
+            channel.truncate(validLength);
+            channel.position(validLength);
+
+            return new CommandJournal(file, channel, lastSequence[0] + 1,
+                    Boolean.parseBoolean(System.getProperty(SYNC_PROPERTY, "true")));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read the complete records of a journal, in the order in which they were written.
+     *
+     * @param file    the file of the journal
+     * @param handler the consumer of the records
+     * @return the number of bytes of the complete records
+     * @throws IOException if the file can't be read
+     */
+    public static long read(Path file, JournalRecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return scan(channel, handler);
+        }
+    }
+
+    /**
+     * Read the records from the beginning of a channel until the end of it or until the first record that is
+     * incomplete or whose checksum doesn't match.
+     *
+     * @param channel the channel
+     * @param handler the consumer of the records
+     * @return the number of bytes of the complete records
+     * @throws IOException if the channel can't be read
+     */
+    private static long scan(FileChannel channel, JournalRecordHandler handler) throws IOException {
+        long size = channel.size();
+        long validLength = 0;
+        CRC32C recordChecksum = new CRC32C();
+        byte[] record = new byte[256];
+
+        // The stream isn't closed, because that would close the channel as well.
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0)),
+                INITIAL_BUFFER_SIZE));
+
+        while (size - validLength >= HEADER_SIZE) {
+            int length = in.readInt();
+            int expectedChecksum = in.readInt();
+            if (length < 0 || length > size - validLength - HEADER_SIZE) {
+                break;
+            }
+
+            if (record.length < CHECKED_HEADER_SIZE + length) {
+                record = new byte[Math.max(CHECKED_HEADER_SIZE + length, record.length * 2)];
+            }
+            in.readFully(record, 0, CHECKED_HEADER_SIZE + length);
+
+            recordChecksum.reset();
+            recordChecksum.update(record, 0, CHECKED_HEADER_SIZE + length);
+            if ((int) recordChecksum.getValue() != expectedChecksum) {
+                break;
+            }
+
+            ByteBuffer content = ByteBuffer.wrap(record, 0, CHECKED_HEADER_SIZE + length);
+            byte type = content.get();
+            long sequence = content.getLong();
+
+            // The records of unknown types are skipped.
+            if (type == COMMAND_RECORD) {
+                handler.onCommand(sequence, new String(record, CHECKED_HEADER_SIZE, length, StandardCharsets.UTF_8));
+            } else if (type == AUCTION_OUTCOME_RECORD) {
+                handler.onAuctionOutcome(sequence, AuctionOutcome.readFrom(content));
+            } else if (type == PRODUCT_IDS_RECORD) {
+                handler.onProductIds(sequence, ProductIds.readFrom(content));
+            }
+
+            validLength += HEADER_SIZE + length;
+        }
+
+        return validLength;
+    }
+
+    /**
+     * Gets the file of the journal.
+     *
+     * @return the file of the journal
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Whether the messages are held back until the records that precede them are forced to the disk or not.
+     *
+     * @return true if the journal is synchronous, else false
+     */
+    public boolean isSync() {
+        return sync;
+    }
+
+    /**
+     * Gets the sequence of the last record appended.
+     *
+     * @return the sequence of the last record appended, -1 if there isn't any
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Sets the listener told about the sequence of the last record forced to the disk after each fsync. It is called
+     * by the writer thread, without holding the journal's monitor, so the records keep being appended meanwhile.
+     *
+     * @param durabilityListener the listener, null if there isn't any
+     */
+    public void setDurabilityListener(LongConsumer durabilityListener) {
+        this.durabilityListener = durabilityListener;
+    }
+
+    /**
+     * Gets the sequence of the last record forced to the disk.
+     *
+     * @return the sequence of the last record forced to the disk, -1 if there isn't any
+     */
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * Append a command to the journal.
+     *
+     * @param command the command
+     * @return the sequence of the record
+     */
+    public long appendCommand(String command) {
+        byte[] content = command.getBytes(StandardCharsets.UTF_8);
+        return append(COMMAND_RECORD, content);
+    }
+
+    /**
+     * Append the outcome of an auction to the journal.
+     *
+     * @param outcome the outcome
+     * @return the sequence of the record
+     */
+    public long appendAuctionOutcome(AuctionOutcome outcome) {
+        ByteBuffer content = ByteBuffer.allocate(AuctionOutcome.SIZE);
+        outcome.writeTo(content);
+        return append(AUCTION_OUTCOME_RECORD, content.array());
+    }
+
+    /**
+     * Append the ids given to a new product and to its auction to the journal.
+     *
+     * @param productIds the ids
+     * @return the sequence of the record
+     */
+    public long appendProductIds(ProductIds productIds) {
+        ByteBuffer content = ByteBuffer.allocate(ProductIds.SIZE);
+        productIds.writeTo(content);
+        return append(PRODUCT_IDS_RECORD, content.array());
+    }
+
+    /**
+     * Wait for a record to be forced to the disk.
+     *
+     * @param sequence the record's sequence
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public synchronized void awaitDurable(long sequence) throws InterruptedException {
+        // The writer thread stops waiting for its batch to grow, since someone is waiting for it.
+        if (sequence > awaitedSequence) {
+            awaitedSequence = sequence;
+            notifyAll();
+        }
+
+        while (durableSequence < sequence && writeError == null && writer.isAlive()) {
+            wait();
+        }
+        checkWriteError();
+    }
+
+    /**
+     * Wait for all the records appended so far to be forced to the disk.
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+        long lastSequence;
+        synchronized (this) {
+            lastSequence = nextSequence - 1;
+        }
+        awaitDurable(lastSequence);
+    }
+
+    /**
+     * Force all the records to the disk, stop the writer thread and close the file.
+     *
+     * @throws IOException if the records couldn't be written
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        channel.close();
+        if (writeError != null) {
+            throw writeError;
+        }
+    }
+
+    /**
+     * Append a record to the buffer of pending records.
+     *
+     * @param type    the record's type
+     * @param content the record's content
+     * @return the sequence of the record
+     */
+    private synchronized long append(byte type, byte[] content) {
+        // The threads that append records wait while the writer thread is too far behind.
+        while (pendingRecords.position() > MAX_PENDING_BYTES && writeError == null && !closed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        checkWriteError();
+        if (closed) {
+            throw new IllegalStateException("The journal " + file + " is closed.");
+        }
+
+        if (pendingRecords.remaining() < HEADER_SIZE + content.length) {
+            ByteBuffer largerBuffer = ByteBuffer.allocate(Math.max(pendingRecords.capacity() * 2,
+                    pendingRecords.position() + HEADER_SIZE + content.length));
+            pendingRecords.flip();
+            largerBuffer.put(pendingRecords);
+            pendingRecords = largerBuffer;
+        }
+
+        long sequence = nextSequence++;
+        int start = pendingRecords.position();
+        pendingRecords.putInt(content.length).putInt(0).put(type).putLong(sequence).put(content);
+
+        checksum.reset();
+        checksum.update(pendingRecords.array(), start + 2 * Integer.BYTES, CHECKED_HEADER_SIZE + content.length);
+        pendingRecords.putInt(start + Integer.BYTES, (int) checksum.getValue());
+        lastSequence = sequence;
+
+        // The writer thread only waits when there was nothing to write.
+        if (start == 0) {
+            notifyAll();
+        }
+
+        return sequence;
+    }
+
+    /**
+     * The writer thread's loop: take the records gathered so far, write them and force them to the disk.
+     */
+    private void writeRecords() {
+        try {
+            while (true) {
+                long lastSequence;
+
+                synchronized (this) {
+                    while (pendingRecords.position() == 0 && !closed) {
+                        wait();
+                    }
+                    if (pendingRecords.position() == 0) {
+                        return;
+                    }
+
+                    /* A small batch waits a little for more records, so that they share the same fsync, unless one of
+                       its records is waited for.
+                    */
+                    long deadline = System.nanoTime() + GROUP_COMMIT_DELAY_NANOS;
+                    long remainingTime = GROUP_COMMIT_DELAY_NANOS;
+                    while (pendingRecords.position() < GROUP_COMMIT_SIZE && !closed && remainingTime > 0 &&
+                            awaitedSequence <= batchedSequence) {
+                        wait(remainingTime / 1_000_000, (int) (remainingTime % 1_000_000));
+                        remainingTime = deadline - System.nanoTime();
+                    }
+
+                    // The buffers are swapped, so the records keep being appended while this batch is written.
+                    ByteBuffer batch = pendingRecords;
+                    pendingRecords = writtenRecords;
+                    writtenRecords = batch;
+                    lastSequence = nextSequence - 1;
+                    batchedSequence = lastSequence;
+                    notifyAll();
+                }
+
+                writtenRecords.flip();
+                while (writtenRecords.hasRemaining()) {
+                    channel.write(writtenRecords);
+                }
+                channel.force(false);
+                writtenRecords.clear();
+
+                synchronized (this) {
+                    durableSequence = lastSequence;
+                    notifyAll();
+                }
+
+                LongConsumer durabilityListener = this.durabilityListener;
+                if (durabilityListener != null) {
+                    durabilityListener.accept(lastSequence);
+                }
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                writeError = e;
+                notifyAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Check that the writer thread hasn't failed.
+     */
+    private void checkWriteError() {
+        if (writeError != null) {
+            throw new UncheckedIOException("The journal " + file + " couldn't be written.", writeError);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package AuctionHouseProject.Persistence;
+
+import AuctionHouseProject.PrintingFeature.EventSink;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * The type Durable event sink.
+ * <p>
+ * Class that describes the behaviour of a sink that holds back the messages until the journal records that precede
+ * them are on the disk. The commands and the outcomes of the auctions take effect as soon as they are appended to the
+ * journal, without waiting for the disk, but nobody is told about them before they are durable: every line is tagged
+ * with the sequence of the last record appended when it was written and it is passed to the underlying sink only once
+ * the journal's writer thread has forced that record to the disk. So a crash can only lose effects that nobody has
+ * seen, while the commands keep being executed during the group commit delay and share its fsync.
+ */
+public class DurableEventSink implements EventSink {
+    /**
+     * The sink where the lines are written once they are durable.
+     */
+    private final EventSink sink;
+    /**
+     * The journal whose records the lines follow.
+     */
+    private final CommandJournal journal;
+    /**
+     * The lines held back, in the order in which they were written.
+     */
+    private final Queue< HeldLine > heldLines = new ArrayDeque<>();
+
+    /**
+     * Instantiates a new Durable Event Sink and starts listening to the journal's fsyncs.
+     *
+     * @param sink    the sink where the lines are written once they are durable
+     * @param journal the journal whose records the lines follow
+     */
+    public DurableEventSink(EventSink sink, CommandJournal journal) {
+        this.sink = sink;
+        this.journal = journal;
+        journal.setDurabilityListener(this::onDurable);
+    }
+
+    /**
+     * Write a line, right away if all the journal records appended so far are on the disk and no line is held back,
+     * else once they are.
+     *
+     * @param line the line
+     */
+    @Override
+    public void write(String line) {
+        long sequence = journal.getLastSequence();
+
+        synchronized (this) {
+            // The durable sequence is read while holding the monitor, so no fsync can be missed in the meantime.
+            if (heldLines.isEmpty() && sequence <= journal.getDurableSequence()) {
+                sink.write(line);
+            } else {
+                heldLines.add(new HeldLine(sequence, line));
+            }
+        }
+    }
+
+    /**
+     * Wait for all the journal records appended so far to be on the disk, then flush the lines written so far.
+     */
+    @Override
+    public void flush() {
+        try {
+            journal.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        onDurable(journal.getDurableSequence());
+        sink.flush();
+    }
+
+    /**
+     * Flush the lines written so far and close the underlying sink.
+     */
+    @Override
+    public void close() {
+        flush();
+        sink.close();
+    }
+
+    /**
+     * Pass the lines that have become durable to the underlying sink. It is called by the journal's writer thread
+     * after each fsync.
+     *
+     * @param durableSequence the sequence of the last record forced to the disk
+     */
+    private synchronized void onDurable(long durableSequence) {
+        while (!heldLines.isEmpty() && heldLines.peek().sequence <= durableSequence) {
+            sink.write(heldLines.poll().line);
+        }
+    }
+
+    /**
+     * The type Held line.
+     * <p>
+     * A line held back, with the sequence of the journal record that must be durable before it is written.
+     */
+    private static final class HeldLine {
+        /**
+         * The sequence of the last journal record appended when the line was written.
+         */
+        private final long sequence;
+        /**
+         * The line.
+         */
+        private final String line;
+
+        /**
+         * Instantiates a new Held Line.
+         *
+         * @param sequence the sequence of the last journal record appended when the line was written
+         * @param line     the line
+         */
+        private HeldLine(long sequence, String line) {
+            this.sequence = sequence;
+            this.line = line;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package AuctionHouseProject.Persistence;
+
+/**
+ * The interface Journal record handler.
+ * <p>
+ * Describes the behaviour of a consumer of the records read from a command journal, in the order in which they were
+ * written.
+ */
+public interface JournalRecordHandler {
+    /**
+     * Handle a command accepted by the control panel.
+     *
+     * @param sequence the record's sequence
+     * @param command  the command
+     */
+    void onCommand(long sequence, String command);
+
+    /**
+     * Handle the outcome of an auction.
+     *
+     * @param sequence the record's sequence
+     * @param outcome  the outcome
+     */
+    void onAuctionOutcome(long sequence, AuctionOutcome outcome);
+
+    /**
+     * Handle the ids given to a new product and to its auction.
+     *
+     * @param sequence   the record's sequence
+     * @param productIds the ids
+     */
+    void onProductIds(long sequence, ProductIds productIds);
+}
@@ -0,0 +1,91 @@
+package AuctionHouseProject.Persistence;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The type Product ids.
+ * <p>
+ * Class that describes the recorded ids given to a new product and to its auction: the journal sequence of the command
+ * that has added the product and the two ids. A new product gets the id following the one of the last product
+ * available for auction and its auction the id following the one of the last active auction, so the ids depend on
+ * which of the running auctions had already sold their products. They are recorded for giving the same ids again when
+ * the command is executed again, after a restart.
+ */
+public final class ProductIds {
+    /**
+     * The number of bytes of encoded ids.
+     */
+    public static final int SIZE = Long.BYTES + 2 * Integer.BYTES;
+
+    /**
+     * The journal sequence of the command that has added the product.
+     */
+    private final long commandSequence;
+    /**
+     * The product's id.
+     */
+    private final int productId;
+    /**
+     * The id of the product's auction.
+     */
+    private final int auctionId;
+
+    /**
+     * Instantiates a new Product Ids.
+     *
+     * @param commandSequence the journal sequence of the command that has added the product
+     * @param productId       the product's id
+     * @param auctionId       the id of the product's auction
+     */
+    public ProductIds(long commandSequence, int productId, int auctionId) {
+        this.commandSequence = commandSequence;
+        this.productId = productId;
+        this.auctionId = auctionId;
+    }
+
+    /**
+     * Decode the ids.
+     *
+     * @param buffer the buffer positioned at the encoded ids
+     * @return the ids
+     */
+    public static ProductIds readFrom(ByteBuffer buffer) {
+        return new ProductIds(buffer.getLong(), buffer.getInt(), buffer.getInt());
+    }
+
+    /**
+     * Encode the ids.
+     *
+     * @param buffer the buffer where the ids are written
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putLong(commandSequence).putInt(productId).putInt(auctionId);
+    }
+
+    /**
+     * Gets the journal sequence of the command that has added the product.
+     *
+     * @return the journal sequence of the command
+     */
+    public long getCommandSequence() {
+        return commandSequence;
+    }
+
+    /**
+     * Gets the product's id.
+     *
+     * @return the product's id
+     */
+    public int getProductId() {
+        return productId;
+    }
+
+    /**
+     * Gets the id of the product's auction.
+     *
+     * @return the auction's id
+     */
+    public int getAuctionId() {
+        return auctionId;
+    }
+}
@@ -0,0 +1,143 @@
+package AuctionHouseProject.Persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * The type Snapshot file.
+ * <p>
+ * Class that describes the behaviour of a file with a binary snapshot of the state of the Auction House. The file
+ * starts with a header (a magic number, the version of the format, the sequence of the last journaled command that the
+ * snapshot covers, the length and the checksum of the content) followed by the content. A snapshot is written to a
+ * temporary file, forced to the disk and then moved over the previous one, so the file always holds a complete
+ * snapshot.
+ */
+public final class SnapshotFile {
+    /**
+     * The magic number at the beginning of the snapshots.
+     */
+    private static final int MAGIC = 0x4148534E;
+    /**
+     * The version of the format of the snapshots.
+     */
+    private static final int VERSION = 2;
+    /**
+     * The number of bytes of the header.
+     */
+    private static final int HEADER_SIZE = 3 * Integer.BYTES + 2 * Long.BYTES;
+
+    /**
+     * The sequence of the last journaled command that the snapshot covers.
+     */
+    private final long journalSequence;
+    /**
+     * The content of the snapshot.
+     */
+    private final byte[] content;
+
+    /**
+     * Instantiates a new Snapshot File.
+     *
+     * @param journalSequence the sequence of the last journaled command that the snapshot covers
+     * @param content         the content of the snapshot
+     */
+    private SnapshotFile(long journalSequence, byte[] content) {
+        this.journalSequence = journalSequence;
+        this.content = content;
+    }
+
+    /**
+     * Write a snapshot, replacing the previous one.
+     *
+     * @param file            the file of the snapshot
+     * @param journalSequence the sequence of the last journaled command that the snapshot covers, -1 if none
+     * @param content         the content of the snapshot
+     * @throws IOException if the snapshot can't be written
+     */
+    public static void write(Path file, long journalSequence, ByteArrayOutputStream content) throws IOException {
+        byte[] bytes = content.toByteArray();
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(journalSequence).putLong(bytes.length)
+                .putInt((int) checksum.getValue()).flip();
+
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            OutputStream out = Channels.newOutputStream(channel);
+            out.write(bytes);
+            out.flush();
+            channel.force(true);
+        }
+
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a snapshot.
+     *
+     * @param file the file of the snapshot
+     * @return the snapshot
+     * @throws IOException if the snapshot can't be read or it is damaged
+     */
+    public static SnapshotFile read(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < HEADER_SIZE) {
+            throw new IOException("The snapshot " + file + " is incomplete.");
+        }
+
+        ByteBuffer header = ByteBuffer.wrap(bytes, 0, HEADER_SIZE);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("The file " + file + " isn't a snapshot of a known version.");
+        }
+        long journalSequence = header.getLong();
+        long length = header.getLong();
+        int expectedChecksum = header.getInt();
+
+        if (length != bytes.length - HEADER_SIZE) {
+            throw new IOException("The snapshot " + file + " is incomplete.");
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes, HEADER_SIZE, (int) length);
+        if ((int) checksum.getValue() != expectedChecksum) {
+            throw new IOException("The snapshot " + file + " is damaged.");
+        }
+
+        byte[] content = new byte[(int) length];
+        System.arraycopy(bytes, HEADER_SIZE, content, 0, content.length);
+
+        return new SnapshotFile(journalSequence, content);
+    }
+
+    /**
+     * Gets the sequence of the last journaled command that the snapshot covers.
+     *
+     * @return the sequence of the last journaled command that the snapshot covers, -1 if none
+     */
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    /**
+     * Gets the content of the snapshot.
+     *
+     * @return the content of the snapshot
+     */
+    public byte[] getContent() {
+        return content;
+    }
+}
@@ -0,0 +1,272 @@
+package AuctionHouseProject.PrintingFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The type Async event sink.
+ * <p>
+ * Class that describes the behaviour of a sink that doesn't print the lines on the threads that write them. The lines
+ * are put in a lock-free queue and a single writer thread takes them out in batches, encodes them into a large buffer
+ * and writes the buffer to a channel only when it is full or when the queue is empty.
+ * <p>
+ * None of the threads spins: the idle writer parks until a thread that puts a line in the queue unparks it, the
+ * threads that write lines while the queue is full block until the writer makes room for them and the threads that
+ * flush the sink wait until the writer tells them that their lines were written.
+ */
+public class AsyncEventSink implements EventSink {
+    /**
+     * The size of the buffer in which the lines are gathered before being written.
+     */
+    private static final int BUFFER_SIZE = 256 * 1024;
+    /**
+     * The maximum number of lines that may wait in the queue before the threads that write lines are blocked.
+     */
+    private static final int MAX_PENDING_LINES = 64 * 1024;
+
+    /**
+     * The queue of lines that haven't been written yet.
+     */
+    private final Queue< String > pendingLines = new ConcurrentLinkedQueue<>();
+    /**
+     * The room left in the queue: a thread takes a permit before putting a line in the queue and the writer gives it
+     * back after taking the line out.
+     */
+    private final Semaphore queueRoom = new Semaphore(MAX_PENDING_LINES);
+    /**
+     * The number of lines that were put in the queue.
+     */
+    private final AtomicLong noQueuedLines = new AtomicLong(0);
+    /**
+     * The number of lines that were written to the channel.
+     */
+    private volatile long noWrittenLines = 0;
+    /**
+     * The number of threads waiting for their lines to be written.
+     */
+    private final AtomicInteger noFlushingThreads = new AtomicInteger(0);
+
+    /**
+     * The stream where the lines are written.
+     */
+    private final OutputStream out;
+    /**
+     * The channel over the stream.
+     */
+    private final WritableByteChannel channel;
+    /**
+     * The buffer in which the lines are gathered.
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    /**
+     * The encoder of the lines.
+     */
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    /**
+     * The line separator.
+     */
+    private final CharBuffer lineSeparator = CharBuffer.wrap(System.lineSeparator());
+
+    /**
+     * The writer thread.
+     */
+    private final Thread writer;
+    /**
+     * Whether the writer thread is waiting for lines or not.
+     */
+    private volatile boolean writerIdle = false;
+    /**
+     * Whether the sink was closed or not.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Instantiates a new Async Event Sink that writes the lines to the standard output.
+     */
+    public AsyncEventSink() {
+        this(System.out);
+    }
+
+    /**
+     * Instantiates a new Async Event Sink.
+     *
+     * @param out the stream where the lines are written
+     */
+    public AsyncEventSink(OutputStream out) {
+        this.out = out;
+        this.channel = Channels.newChannel(out);
+        this.writer = new Thread(this::writeLines, "auction-house-event-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Put a line in the queue. If the queue is full, the calling thread blocks until the writer thread makes room.
+     *
+     * @param line the line
+     */
+    @Override
+    public void write(String line) {
+        queueRoom.acquireUninterruptibly();
+        pendingLines.offer(line);
+        noQueuedLines.incrementAndGet();
+
+        // The writer sets the flag before it checks the queue for the last time, so it either sees the line or it is
+        // unparked here.
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Wait for the lines put in the queue so far to be written.
+     */
+    @Override
+    public void flush() {
+        long noLines = noQueuedLines.get();
+        if (noWrittenLines >= noLines) {
+            return;
+        }
+
+        synchronized (this) {
+            noFlushingThreads.incrementAndGet();
+            try {
+                boolean interrupted = false;
+                while (noWrittenLines < noLines && writer.isAlive()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            } finally {
+                noFlushingThreads.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Wait for all the lines to be written and stop the writer thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The writer thread's loop: take the lines out of the queue and write them in batches.
+     */
+    private void writeLines() {
+        long noEncodedLines = 0;
+
+        try {
+            while (true) {
+                String line = pendingLines.poll();
+
+                // The queue is empty, so write what was gathered so far and wait for more lines.
+                if (line == null) {
+                    writeBuffer();
+                    noWrittenLines = noEncodedLines;
+                    wakeUpFlushingThreads();
+
+                    if (closed && pendingLines.isEmpty()) {
+                        return;
+                    }
+
+                    // The writer parks until a new line or the closing of the sink unparks it.
+                    writerIdle = true;
+                    if (pendingLines.isEmpty() && !closed) {
+                        LockSupport.park(this);
+                    }
+                    writerIdle = false;
+                    continue;
+                }
+
+                encode(CharBuffer.wrap(line));
+                encode(lineSeparator.duplicate());
+                noEncodedLines++;
+                queueRoom.release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            /* If the writer stops because of an error, the threads that wait for it are let go: the ones blocked on
+               the full queue get all the room they need and the flushing ones see that the writer isn't alive.
+            */
+            queueRoom.release(Integer.MAX_VALUE - MAX_PENDING_LINES);
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Wake up the threads waiting for their lines to be written, if there are any. A flushing thread registers itself
+     * before checking the number of written lines, so it either sees the new number or it is woken up here.
+     */
+    private void wakeUpFlushingThreads() {
+        if (noFlushingThreads.get() > 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Encode characters into the buffer, writing the buffer whenever it fills up.
+     *
+     * @param characters the characters
+     * @throws IOException if the buffer can't be written
+     */
+    private void encode(CharBuffer characters) throws IOException {
+        while (true) {
+            CoderResult result = encoder.encode(characters, buffer, true);
+            if (!result.isOverflow()) {
+                return;
+            }
+            writeBuffer();
+        }
+    }
+
+    /**
+     * Write the content of the buffer to the channel.
+     *
+     * @throws IOException if the buffer can't be written
+     */
+    private void writeBuffer() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        out.flush();
+    }
+}
@@ -0,0 +1,57 @@
+package AuctionHouseProject.PrintingFeature;
+
+import java.io.PrintStream;
+
+/**
+ * The type Console event sink.
+ * <p>
+ * Class that describes the behaviour of a sink that prints each line synchronously, on the thread that writes it.
+ */
+public class ConsoleEventSink implements EventSink {
+    /**
+     * The stream where the lines are printed.
+     */
+    private final PrintStream out;
+
+    /**
+     * Instantiates a new Console Event Sink that prints the lines to the standard output.
+     */
+    public ConsoleEventSink() {
+        this(System.out);
+    }
+
+    /**
+     * Instantiates a new Console Event Sink.
+     *
+     * @param out the stream where the lines are printed
+     */
+    public ConsoleEventSink(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Print a line.
+     *
+     * @param line the line
+     */
+    @Override
+    public void write(String line) {
+        out.println(line);
+    }
+
+    /**
+     * Flush the stream.
+     */
+    @Override
+    public void flush() {
+        out.flush();
+    }
+
+    /**
+     * Flush the stream. The stream itself is not closed.
+     */
+    @Override
+    public void close() {
+        out.flush();
+    }
+}
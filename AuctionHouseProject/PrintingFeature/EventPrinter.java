@@ -0,0 +1,185 @@
+package AuctionHouseProject.PrintingFeature;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The type Event printer.
+ * <p>
+ * Class that describes the behaviour of the printer used for all the messages about the events of the Auction House.
+ * The messages are written to a pluggable event sink, they can be printed with or without colors and the messages
+ * about the clients' bids, which are the most frequent ones, can be sampled or dropped.
+ */
+public class EventPrinter {
+    /**
+     * The system property used for choosing whether the messages are printed asynchronously or not.
+     */
+    public static final String ASYNC_PROPERTY = "auctionhouse.output.async";
+    /**
+     * The system property used for choosing whether the messages are printed with colors or not.
+     */
+    public static final String COLORS_PROPERTY = "auctionhouse.output.colors";
+    /**
+     * The system property used for sampling the messages about bids: 1 prints all of them, n prints one in n of them
+     * and 0 drops all of them.
+     */
+    public static final String BID_SAMPLING_PROPERTY = "auctionhouse.output.bidSampling";
+
+    /**
+     * Instance of the Event Printer.
+     */
+    private static EventPrinter instanceOfEventPrinter = null;
+
+    /**
+     * The sink where the messages are written.
+     */
+    private volatile EventSink sink;
+    /**
+     * Whether the messages are printed with colors or not.
+     */
+    private volatile boolean colors;
+    /**
+     * One in how many messages about bids is printed, 0 if none of them is printed.
+     */
+    private volatile int bidSampling;
+
+    /**
+     * Instantiates a new Event Printer.
+     *
+     * @param sink        the sink where the messages are written
+     * @param colors      whether the messages are printed with colors or not
+     * @param bidSampling one in how many messages about bids is printed, 0 if none of them is printed
+     */
+    private EventPrinter(EventSink sink, boolean colors, int bidSampling) {
+        this.sink = sink;
+        this.colors = colors;
+        this.bidSampling = bidSampling;
+    }
+
+    /**
+     * Gets the instance of the Event Printer.
+     * <p>
+     * If the Event Printer hasn't been instantiated yet a new one is created, configured by the system properties, and
+     * returned, else it returns the instance of the existing Event Printer.
+     *
+     * @return the instance of the Event Printer
+     */
+    public static synchronized EventPrinter getInstance() {
+        if (instanceOfEventPrinter == null) {
+            EventSink sink = Boolean.getBoolean(ASYNC_PROPERTY) ? new AsyncEventSink() : new ConsoleEventSink();
+            instanceOfEventPrinter = new EventPrinter(sink, Boolean.parseBoolean(System.getProperty(COLORS_PROPERTY,
+                    "true")), Integer.getInteger(BID_SAMPLING_PROPERTY, 1));
+        }
+
+        return instanceOfEventPrinter;
+    }
+
+    /**
+     * Print a message without color.
+     *
+     * @param message the message
+     */
+    public void print(String message) {
+        sink.write(message);
+    }
+
+    /**
+     * Print a message in a color.
+     *
+     * @param color   the color, one of the constants in ConsoleColors
+     * @param message the message
+     */
+    public void print(String color, String message) {
+        if (colors) {
+            sink.write(color + message + ConsoleColors.RESET);
+        } else {
+            sink.write(message);
+        }
+    }
+
+    /**
+     * Whether the next message about a bid should be printed or not. It is checked before building the message, so
+     * the dropped messages cost nothing.
+     *
+     * @return true if the message should be printed, else false
+     */
+    public boolean isBidPrinted() {
+        int sampling = bidSampling;
+
+        if (sampling == 1) {
+            return true;
+        } else if (sampling <= 0) {
+            return false;
+        }
+
+        return ThreadLocalRandom.current().nextInt(sampling) == 0;
+    }
+
+    /**
+     * Flush the messages printed so far.
+     */
+    public void flush() {
+        sink.flush();
+    }
+
+    /**
+     * Flush the messages printed so far and close the sink.
+     */
+    public void close() {
+        sink.close();
+    }
+
+    /**
+     * Gets the sink where the messages are written.
+     *
+     * @return the sink
+     */
+    public EventSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Sets the sink where the messages are written. The previous sink is flushed, but not closed.
+     *
+     * @param sink the sink
+     */
+    public void setSink(EventSink sink) {
+        this.sink.flush();
+        this.sink = sink;
+    }
+
+    /**
+     * Whether the messages are printed with colors or not.
+     *
+     * @return true if the messages are printed with colors, else false
+     */
+    public boolean isColors() {
+        return colors;
+    }
+
+    /**
+     * Sets whether the messages are printed with colors or not.
+     *
+     * @param colors whether the messages are printed with colors or not
+     */
+    public void setColors(boolean colors) {
+        this.colors = colors;
+    }
+
+    /**
+     * Gets one in how many messages about bids is printed.
+     *
+     * @return one in how many messages about bids is printed, 0 if none of them is printed
+     */
+    public int getBidSampling() {
+        return bidSampling;
+    }
+
+    /**
+     * Sets one in how many messages about bids is printed.
+     *
+     * @param bidSampling one in how many messages about bids is printed, 0 if none of them is printed
+     */
+    public void setBidSampling(int bidSampling) {
+        this.bidSampling = bidSampling;
+    }
+}
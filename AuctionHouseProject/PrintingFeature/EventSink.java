@@ -0,0 +1,25 @@
+package AuctionHouseProject.PrintingFeature;
+
+/**
+ * The interface Event sink.
+ * <p>
+ * Describes the behaviour of a destination for the messages printed about the events of the Auction House.
+ */
+public interface EventSink {
+    /**
+     * Write a line.
+     *
+     * @param line the line
+     */
+    void write(String line);
+
+    /**
+     * Flush the lines written so far.
+     */
+    void flush();
+
+    /**
+     * Flush the lines written so far and close the sink.
+     */
+    void close();
+}
@@ -0,0 +1,166 @@
+package AuctionHouseProject.Products;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The type Product catalogue.
+ * <p>
+ * Class that describes the behaviour of the catalogue of products available for auction. The products are kept in a
+ * concurrent map sorted by their id, so they can be added, removed and listed by several threads at the same time
+ * without any lock. Since a new product always gets the id following the one of the last product, the order of the ids
+ * is also the order in which the products were added.
+ * <p>
+ * The readers that need the whole catalogue get an immutable snapshot of it. Every change of the catalogue increments
+ * its version and the snapshot is rebuilt only when it is requested for a newer version, so any number of readers share
+ * the same snapshot between two changes and none of them ever blocks a writer.
+ */
+public class ProductCatalogue {
+    /**
+     * The Products indexed and sorted by their id.
+     */
+    private final ConcurrentNavigableMap< Integer, Product > productsById;
+    /**
+     * The version of the catalogue, incremented after every change.
+     */
+    private final AtomicLong version;
+    /**
+     * The last snapshot that was taken.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Instantiates a new Product Catalogue.
+     */
+    public ProductCatalogue() {
+        this.productsById = new ConcurrentSkipListMap<>();
+        this.version = new AtomicLong(0);
+        this.snapshot = new Snapshot(0, Collections.emptyList());
+    }
+
+    /**
+     * Gets an immutable snapshot of the list of products, in the order in which they were added. The snapshot isn't
+     * affected by the changes made after it was taken.
+     *
+     * @return the list of products
+     */
+    public List< Product > getProducts() {
+        Snapshot lastSnapshot = snapshot;
+        long currentVersion = version.get();
+        if (lastSnapshot.version == currentVersion) {
+            return lastSnapshot.products;
+        }
+
+        List< Product > products = Collections.unmodifiableList(new ArrayList<>(productsById.values()));
+
+        // The snapshot is published only if no change ended while it was taken, otherwise it is used just by this
+        // reader and the next one takes a new one.
+        if (version.get() == currentVersion) {
+            snapshot = new Snapshot(currentVersion, products);
+        }
+
+        return products;
+    }
+
+    /**
+     * Gets the version of the catalogue. It changes every time a product is added or removed.
+     *
+     * @return the version of the catalogue
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Gets a product by its id.
+     *
+     * @param productId the product's id
+     * @return the product or null if there isn't any product with this id in the catalogue
+     */
+    public Product getProduct(int productId) {
+        return productsById.get(productId);
+    }
+
+    /**
+     * Gets the id that follows the one of the last product in the catalogue.
+     *
+     * @return the next product id, 1 if the catalogue is empty
+     */
+    public int getNextProductId() {
+        Map.Entry< Integer, Product > lastEntry = productsById.lastEntry();
+        return lastEntry == null ? 1 : lastEntry.getKey() + 1;
+    }
+
+    /**
+     * Add a product to the catalogue.
+     *
+     * @param product the product
+     */
+    public void addProduct(Product product) {
+        productsById.put(product.getId(), product);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Remove a product from the catalogue.
+     *
+     * @param product the product to be removed
+     */
+    public void removeProduct(Product product) {
+        // Only drop the entry if it still points to this product.
+        if (productsById.remove(product.getId(), product)) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Check whether the catalogue is empty or not.
+     *
+     * @return true if there isn't any product in the catalogue
+     */
+    public boolean isEmpty() {
+        return productsById.isEmpty();
+    }
+
+    /**
+     * Gets the number of products in the catalogue. The map has to be traversed, so isEmpty() should be preferred
+     * when the exact number isn't needed.
+     *
+     * @return the number of products in the catalogue
+     */
+    public int size() {
+        return productsById.size();
+    }
+
+    /**
+     * The type Snapshot.
+     * <p>
+     * Class that describes an immutable list of products together with the version of the catalogue it was taken at.
+     */
+    private static final class Snapshot {
+        /**
+         * The version of the catalogue.
+         */
+        private final long version;
+        /**
+         * The immutable list of products.
+         */
+        private final List< Product > products;
+
+        /**
+         * Instantiates a new Snapshot.
+         *
+         * @param version  the version of the catalogue
+         * @param products the immutable list of products
+         */
+        private Snapshot(long version, List< Product > products) {
+            this.version = version;
+            this.products = products;
+        }
+    }
+}
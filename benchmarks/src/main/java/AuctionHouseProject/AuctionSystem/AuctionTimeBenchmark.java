@@ -0,0 +1,166 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.Enums.AuctionMode;
+import AuctionHouseProject.People.Broker;
+import AuctionHouseProject.People.Client;
+import AuctionHouseProject.Products.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Auction time benchmark.
+ * <p>
+ * Measures a whole auction, AuctionHouse.auctionTime, for a number of brokers, participants and steps, in each auction
+ * mode, both when the product is sold and when it isn't. Every invocation runs a batch of new auctions for new
+ * products, with the participants spread over the brokers as the sign-ups do, and the auctions and the products are
+ * dropped after it. A short auction takes only a few microseconds, so the time spent by the benchmark harness around
+ * each invocation is spread over the whole batch instead of being measured with every auction.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuctionTimeBenchmark {
+    /**
+     * The number of auctions run by each invocation.
+     */
+    private static final int NO_AUCTIONS = 128;
+
+    /**
+     * The number of brokers of the Auction House.
+     */
+    @Param({"1", "16", "256"})
+    int noBrokers;
+    /**
+     * The number of participants of the auction.
+     */
+    @Param({"10", "100", "1000"})
+    int noParticipants;
+    /**
+     * The number of steps of the auction.
+     */
+    @Param({"10", "100"})
+    int maxNoSteps;
+    /**
+     * Whether the auction ends as soon as the offers can't change anymore or only after all its steps.
+     */
+    @Param({"true", "false"})
+    boolean earlyTermination;
+    /**
+     * The mode in which the auction's outcome is computed.
+     */
+    @Param({"stepped", "proxy"})
+    AuctionMode mode;
+    /**
+     * Whether the participants' maximum prices allow the product to be sold or not.
+     */
+    @Param({"false", "true"})
+    boolean sold;
+    /**
+     * Whether the output of the Auction House is dropped or printed to the console.
+     */
+    @Param({"true"})
+    boolean suppressOutput;
+
+    /**
+     * The Auction House.
+     */
+    private AuctionHouse auctionHouse;
+    /**
+     * The clients that take part in the auctions.
+     */
+    private Client[] clients;
+    /**
+     * The id of the next product.
+     */
+    private int nextProductId;
+
+    /**
+     * The auctions run by the next invocation.
+     */
+    private final Auction[] auctions = new Auction[NO_AUCTIONS];
+    /**
+     * The products sold in the next auctions.
+     */
+    private final Product[] products = new Product[NO_AUCTIONS];
+
+    /**
+     * Create the Auction House, its brokers and its clients.
+     *
+     * @throws InterruptedException if the thread was interrupted while resetting the auction house
+     */
+    @Setup(Level.Trial)
+    public void setUpAuctionHouse() throws InterruptedException {
+        auctionHouse = BenchmarkSupport.resetAuctionHouse(suppressOutput);
+        BenchmarkSupport.addBrokers(auctionHouse, noBrokers);
+        clients = BenchmarkSupport.addClients(auctionHouse, noParticipants);
+        auctionHouse.setEarlyTermination(earlyTermination);
+        nextProductId = 1;
+    }
+
+    /**
+     * Create the auctions of the next invocation and sign up all the clients for each of them.
+     * <p>
+     * The clients' maximum prices are always above the highest starting price, which is half of the product's minimum
+     * price, so they bid. For the unsold variant they are below the minimum price, so the product is never sold; for
+     * the sold variant they are ten times the minimum price, so the offers pass it from the first step and the
+     * product is sold, with the winner's broker collecting its fee.
+     */
+    @Setup(Level.Invocation)
+    public void setUpAuctions() {
+        List< Broker > brokers = auctionHouse.getBrokers();
+        for (int auctionIndex = 0; auctionIndex < NO_AUCTIONS; auctionIndex++) {
+            Product product = BenchmarkSupport.createProduct(nextProductId++, 1_000_000);
+            auctionHouse.addProduct(product, maxNoSteps, noParticipants, mode);
+            Auction auction = auctionHouse.getAuction(product.getId());
+
+            for (int i = 0; i < noParticipants; i++) {
+                brokers.get(i % noBrokers).addClient(clients[i], auction, (sold ? 10_000_000 : 600_000) + i);
+            }
+            auction.setCurrentNoParticipants(noParticipants);
+
+            products[auctionIndex] = product;
+            auctions[auctionIndex] = auction;
+        }
+    }
+
+    /**
+     * Run the auctions, one after another.
+     */
+    @Benchmark
+    @OperationsPerInvocation(NO_AUCTIONS)
+    public void auctionTime() {
+        for (int auctionIndex = 0; auctionIndex < NO_AUCTIONS; auctionIndex++) {
+            auctionHouse.auctionTime(auctions[auctionIndex], products[auctionIndex]);
+        }
+    }
+
+    /**
+     * Drop the auctions, which stay active if their products weren't sold, and the products, so neither the auctions
+     * nor the catalogue grow during the trial.
+     */
+    @TearDown(Level.Invocation)
+    public void tearDownAuctions() {
+        for (int auctionIndex = 0; auctionIndex < NO_AUCTIONS; auctionIndex++) {
+            auctionHouse.removeAuction(auctions[auctionIndex]);
+            auctionHouse.removeProduct(products[auctionIndex]);
+        }
+    }
+}
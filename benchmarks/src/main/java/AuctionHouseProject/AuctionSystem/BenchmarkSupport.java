@@ -0,0 +1,108 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.Enums.Company;
+import AuctionHouseProject.People.Broker;
+import AuctionHouseProject.People.Client;
+import AuctionHouseProject.People.LegalPerson;
+import AuctionHouseProject.People.NaturalPerson;
+import AuctionHouseProject.PrintingFeature.ConsoleEventSink;
+import AuctionHouseProject.PrintingFeature.EventPrinter;
+import AuctionHouseProject.PrintingFeature.EventSink;
+import AuctionHouseProject.Products.Furniture;
+import AuctionHouseProject.Products.Product;
+
+/**
+ * The type Benchmark support.
+ * <p>
+ * Class with the helpers shared by the benchmarks: resetting the Auction House between trials, suppressing its output
+ * and filling it with brokers, clients and products.
+ */
+final class BenchmarkSupport {
+    /**
+     * The sink that drops every line, used for keeping the console I/O out of the measurements.
+     */
+    static final EventSink DISCARDING_SINK = new EventSink() {
+        @Override
+        public void write(String line) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Instantiates a new Benchmark Support.
+     */
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Replace the Auction House with a new, empty one, without any simulated latency, and choose where its output
+     * goes.
+     *
+     * @param suppressOutput whether the output is dropped or printed to the console
+     * @return the new auction house
+     * @throws InterruptedException if the thread was interrupted while waiting for the running auctions
+     */
+    static AuctionHouse resetAuctionHouse(boolean suppressOutput) throws InterruptedException {
+        EventPrinter.getInstance().setSink(suppressOutput ? DISCARDING_SINK : new ConsoleEventSink());
+        LatencyPolicy.setInstance(LatencyPolicy.NONE);
+        AuctionHouse.resetInstance();
+
+        return AuctionHouse.getInstance();
+    }
+
+    /**
+     * Add brokers to the Auction House.
+     *
+     * @param auctionHouse the auction house
+     * @param noBrokers    the number of brokers
+     */
+    static void addBrokers(AuctionHouse auctionHouse, int noBrokers) {
+        for (int i = 0; i < noBrokers; i++) {
+            auctionHouse.addBroker(new Broker());
+        }
+    }
+
+    /**
+     * Sign up clients into the Auction House, half of them natural persons and half of them legal persons.
+     *
+     * @param auctionHouse the auction house
+     * @param noClients    the number of clients
+     * @return the clients
+     */
+    static Client[] addClients(AuctionHouse auctionHouse, int noClients) {
+        Client[] clients = new Client[noClients];
+
+        for (int i = 0; i < noClients; i++) {
+            clients[i] = i % 2 == 0
+                    ? new NaturalPerson("Client " + i, "client" + i + "@mail.com", "01/01/1990")
+                    : new LegalPerson("Client " + i, "client" + i + "@mail.com", Company.SRL, 1000.0 * i);
+            auctionHouse.signUpClient(clients[i]);
+        }
+
+        return clients;
+    }
+
+    /**
+     * Create a piece of furniture.
+     *
+     * @param productId the product's id
+     * @param minPrice  the product's minimum selling price
+     * @return the product
+     */
+    static Product createProduct(int productId, double minPrice) {
+        return new Furniture.Builder().setName("Product " + productId)
+                .setMinPrice(minPrice)
+                .setYear(1900)
+                .setType("chair")
+                .setMaterial("oak")
+                .setId(productId)
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.People.Broker;
+import AuctionHouseProject.People.Client;
+import AuctionHouseProject.Products.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Broker notification benchmark.
+ * <p>
+ * Measures one round of Broker.notifyClients, as a step of the auction runs it: every broker of an auction asks its
+ * clients for a new offer, given its index in the auction's offer book. The brokers' clients are also signed up for
+ * other auctions, which the notification has to skip.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BrokerNotificationBenchmark {
+    /**
+     * The number of brokers of the Auction House.
+     */
+    @Param({"1", "16", "256"})
+    int noBrokers;
+    /**
+     * The number of participants of the auction.
+     */
+    @Param({"10", "100", "1000"})
+    int noParticipants;
+    /**
+     * The number of other auctions for which the same clients have signed up.
+     */
+    @Param({"0", "10"})
+    int noOtherAuctions;
+    /**
+     * Whether the output of the Auction House is dropped or printed to the console.
+     */
+    @Param({"true"})
+    boolean suppressOutput;
+
+    /**
+     * The brokers that represent clients in the auction, in the order of their indexes in its offer book.
+     */
+    private List< Broker > brokers;
+    /**
+     * The auction whose participants are notified.
+     */
+    private Auction auction;
+    /**
+     * The price announced to the participants, which alternates so that every round asks for new offers.
+     */
+    private double newPrice;
+
+    /**
+     * Create the Auction House, its brokers, its clients and the auctions for which the clients have signed up.
+     *
+     * @throws InterruptedException if the thread was interrupted while resetting the auction house
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        AuctionHouse auctionHouse = BenchmarkSupport.resetAuctionHouse(suppressOutput);
+        BenchmarkSupport.addBrokers(auctionHouse, noBrokers);
+        Client[] clients = BenchmarkSupport.addClients(auctionHouse, noParticipants);
+        List< Broker > allBrokers = auctionHouse.getBrokers();
+
+        for (int productId = 1; productId <= noOtherAuctions + 1; productId++) {
+            Product product = BenchmarkSupport.createProduct(productId, 10);
+            auctionHouse.addProduct(product, 10, noParticipants);
+            auction = auctionHouse.getAuction(productId);
+
+            for (int i = 0; i < noParticipants; i++) {
+                allBrokers.get(i % noBrokers).addClient(clients[i], auction, 1_000_000);
+            }
+        }
+
+        // The offers are grouped by broker when the bidding starts, as they are before the first step.
+        auction.getOfferBook().startBidding();
+        brokers = auction.getOfferBook().getBrokers();
+    }
+
+    /**
+     * Notify the auction's participants of a new price.
+     */
+    @Benchmark
+    public void notifyClients() {
+        newPrice = newPrice == 1 ? 2 : 1;
+
+        for (int brokerSlot = 0; brokerSlot < brokers.size(); brokerSlot++) {
+            brokers.get(brokerSlot).notifyClients(auction, brokerSlot, newPrice);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.Products.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Control panel benchmark.
+ * <p>
+ * Measures AuctionHouseService.controlPanel on a mix of commands against a catalogue of a given size: clients join
+ * the system and sign up for auctions of random products, with offers that are either accepted or denied. The
+ * auctions need more participants than they get, so none of them starts during the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControlPanelBenchmark {
+    /**
+     * The number of commands replayed by each invocation.
+     */
+    private static final int NO_COMMANDS = 1024;
+
+    /**
+     * The number of products available for auction.
+     */
+    @Param({"1000", "100000"})
+    int catalogueSize;
+    /**
+     * The number of brokers of the Auction House.
+     */
+    @Param({"16"})
+    int noBrokers;
+    /**
+     * Whether the output of the Auction House is dropped or printed to the console.
+     */
+    @Param({"true"})
+    boolean suppressOutput;
+
+    /**
+     * The control panel.
+     */
+    private AuctionHouseService controlPanel;
+    /**
+     * The commands replayed by each invocation.
+     */
+    private String[] commands;
+
+    /**
+     * Create the Auction House, its brokers and its catalogue, and generate the commands. The Auction House is
+     * recreated for every iteration, so the sign-ups don't pile up.
+     *
+     * @throws InterruptedException if the thread was interrupted while resetting the auction house
+     */
+    @Setup(Level.Iteration)
+    public void setUp() throws InterruptedException {
+        AuctionHouse auctionHouse = BenchmarkSupport.resetAuctionHouse(suppressOutput);
+        controlPanel = new AuctionHouseService();
+        BenchmarkSupport.addBrokers(auctionHouse, noBrokers);
+        BenchmarkSupport.addClients(auctionHouse, NO_COMMANDS);
+
+        for (int productId = 1; productId <= catalogueSize; productId++) {
+            Product product = BenchmarkSupport.createProduct(productId, 100);
+            auctionHouse.addProduct(product, 10, Integer.MAX_VALUE);
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        commands = new String[NO_COMMANDS];
+        for (int i = 0; i < NO_COMMANDS; i++) {
+            commands[i] = switch (i % 4) {
+                case 0 -> "addClient NaturalPerson \"Client " + i + "\" client" + i + "@mail.com 01/01/1990";
+                case 1 -> "addClient LegalPerson \"Client " + i + "\" client" + i + "@mail.com SRL 12673.45";
+                default -> "requestSignUpForAuction " + (1 + random.nextInt(NO_COMMANDS)) + " " +
+                        (1 + random.nextInt(catalogueSize)) + " " + (50 + random.nextInt(100)) + ".50";
+            };
+        }
+    }
+
+    /**
+     * Replay the commands.
+     */
+    @Benchmark
+    @OperationsPerInvocation(NO_COMMANDS)
+    public void controlPanel() {
+        for (String command : commands) {
+            controlPanel.controlPanel(command);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package AuctionHouseProject.AuctionSystem;
+
+import AuctionHouseProject.Products.Product;
+import AuctionHouseProject.Products.ProductFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Product factory benchmark.
+ * <p>
+ * Measures ProductFactory.createProduct for each of the three types of products.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductFactoryBenchmark {
+    /**
+     * The type of the created products.
+     */
+    @Param({"Painting", "Furniture", "Jewelry"})
+    String productType;
+
+    /**
+     * The factory of the products.
+     */
+    private final ProductFactory productFactory = new ProductFactory();
+    /**
+     * The extra info of the created paintings.
+     */
+    private final String[] paintingInfo = {"\"Washington Allston\"", "acrylic"};
+    /**
+     * The extra info of the created pieces of furniture.
+     */
+    private final String[] furnitureInfo = {"\"side table\"", "mahogany"};
+    /**
+     * The extra info of the created pieces of jewelry.
+     */
+    private final String[] jewelryInfo = {"\"gold\"", "true"};
+
+    /**
+     * Create a product.
+     *
+     * @return the product
+     */
+    @Benchmark
+    public Product createProduct() {
+        String[] productInfo = switch (productType) {
+            case "Painting" -> paintingInfo;
+            case "Furniture" -> furnitureInfo;
+            default -> jewelryInfo;
+        };
+
+        return productFactory.createProduct(productType, "Chill night", 1304, 83.05, 1, productInfo);
+    }
+}